@@ -0,0 +1,126 @@
+package br.com.moicano.lojinha.benchmark;
+
+import br.com.moicano.lojinha.dao.CategoriaDAO;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.database.DatabaseConnection;
+import br.com.moicano.lojinha.model.Categoria;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Prepara o H2 usado pelos benchmarks.
+ *
+ * A URL do banco precisa ser definida antes do primeiro uso de DatabaseConnection
+ * (o pool é criado uma vez por JVM), por isso os benchmarks rodam com @Fork:
+ * cada combinação de parâmetros ganha uma JVM e um banco novos.
+ */
+final class BancoDeBenchmark {
+    static final int QUANTIDADE_CATEGORIAS = 10;
+    private static final Path DIRETORIO_ARQUIVO = Paths.get("target", "bench-db");
+
+    private BancoDeBenchmark() {}
+
+    /**
+     * @param modo "mem" (H2 em memória) ou "file" (H2 em arquivo, como em produção)
+     * @param checkoutEmGrupo se o checkout grava pela fila do GravadorPedidos (group commit)
+     *        ou sozinho, na thread do benchmark. Lido quando o CheckoutService é carregado,
+     *        por isso precisa vir antes do primeiro uso dele.
+     */
+    static void iniciar(String modo, boolean checkoutEmGrupo) {
+        System.setProperty("lojinha.checkout.emGrupo", String.valueOf(checkoutEmGrupo));
+        if (System.getProperty("lojinha.db.url") == null) {
+            if (modo.equals("mem")) {
+                System.setProperty("lojinha.db.url", "jdbc:h2:mem:lojinha-bench;DB_CLOSE_DELAY=-1");
+            } else {
+                apagarDiretorio(DIRETORIO_ARQUIVO);
+                System.setProperty("lojinha.db.url", "jdbc:h2:./" + DIRETORIO_ARQUIVO.resolve("lojinha").toString().replace('\\', '/'));
+            }
+        }
+        DatabaseConnection.initDatabase();
+        limparTabelas();
+    }
+
+    static void encerrar() {
+        DatabaseConnection.shutdown();
+    }
+
+    // Cadastra categorias e produtos com IDs sequenciais (1..tamanho) e estoque farto
+    static void popularCatalogo(int tamanho, int estoque) {
+        CategoriaDAO categoriaDAO = new CategoriaDAO();
+        for (int i = 1; i <= QUANTIDADE_CATEGORIAS; i++) {
+            categoriaDAO.criar(new Categoria("Categoria " + i, "Categoria de benchmark"));
+        }
+
+        String sql = "INSERT INTO produtos (nome, descricao, preco_centavos, quantidade, categoria_id, dosagem, requer_receita) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 1; i <= tamanho; i++) {
+                stmt.setString(1, "Produto " + i);
+                stmt.setString(2, "Descrição do produto " + i);
+                stmt.setLong(3, 100 + (i % 5_000));
+                stmt.setInt(4, estoque);
+                stmt.setInt(5, 1 + (i % QUANTIDADE_CATEGORIAS));
+                stmt.setString(6, (i % 10) * 50 + "mg");
+                stmt.setBoolean(7, i % 7 == 0);
+                stmt.addBatch();
+                if (i % 1_000 == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao popular catálogo do benchmark: " + e.getMessage(), e);
+        }
+        ProdutoDAO.limparCache();
+    }
+
+    private static void limparTabelas() {
+        // Agregados de vendas e pedidos arquivados também: um banco em arquivo reaproveitado
+        // não pode levar totais ou pedidos de uma rodada para a outra
+        String[] tabelas = {"vendas_dia", "vendas_produto_dia", "vendas_categoria_dia",
+                "itens_pedido_arquivo", "pedidos_arquivo", "favoritos", "itens_pedido", "pedidos", "produtos", "categorias"};
+        Set<String> comAutoIncremento = Set.of("itens_pedido", "pedidos", "produtos", "categorias");
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String tabela : tabelas) {
+                stmt.execute("DELETE FROM " + tabela);
+                if (comAutoIncremento.contains(tabela)) {
+                    stmt.execute("ALTER TABLE " + tabela + " ALTER COLUMN id RESTART WITH 1");
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao limpar banco do benchmark: " + e.getMessage(), e);
+        }
+        ProdutoDAO.limparCache();
+    }
+
+    private static void apagarDiretorio(Path diretorio) {
+        if (!Files.exists(diretorio)) {
+            return;
+        }
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.moicano.lojinha.benchmark;
+
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.service.CheckoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout completo (o mesmo caminho do "Finalizar Compra" da ClienteView):
+ * pedido + itens + baixa de estoque numa transação.
+ * O estoque é grande o bastante para nunca acabar durante a medição.
+ *
+ * Com emGrupo=true o pedido passa pela fila do GravadorPedidos: numa thread só
+ * não chega um segundo pedido e cada chamada espera a latência máxima do grupo,
+ * por isso a gravação direta (emGrupo=false) é a que mede o custo da escrita e
+ * a variante concorrente é a que mede o group commit sob carga.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+    // Abaixo do tamanho padrão do pool (10), para a gravação direta não medir a espera por conexão
+    private static final int THREADS_CONCORRENTES = 8;
+
+    @Param({"mem", "file"})
+    public String banco;
+
+    @Param({"100", "10000"})
+    public int tamanhoCatalogo;
+
+    @Param({"1", "10", "50"})
+    public int tamanhoCarrinho;
+
+    @Param({"false", "true"})
+    public boolean emGrupo;
+
+    private CheckoutService checkoutService;
+    private List<ItemPedido> carrinho;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        BancoDeBenchmark.iniciar(banco, emGrupo);
+        BancoDeBenchmark.popularCatalogo(tamanhoCatalogo, Integer.MAX_VALUE / 2);
+        checkoutService = new CheckoutService();
+    }
+
+    // Um carrinho novo (produtos sorteados) a cada iteração
+    @Setup(Level.Iteration)
+    public void montarCarrinho() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        carrinho = new ArrayList<>(tamanhoCarrinho);
+        for (int i = 0; i < tamanhoCarrinho; i++) {
+            carrinho.add(new ItemPedido(null, 1 + random.nextInt(tamanhoCatalogo), 1 + random.nextInt(3), 1_290));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        BancoDeBenchmark.encerrar();
+    }
+
+    @Benchmark
+    public Integer finalizarCompra() {
+        return checkoutService.finalizarCompra("Cliente benchmark", carrinho);
+    }
+
+    // Vários caixas ao mesmo tempo (o carrinho é só lido, pode ser compartilhado)
+    @Benchmark
+    @Threads(THREADS_CONCORRENTES)
+    public Integer finalizarCompraConcorrente() {
+        return checkoutService.finalizarCompra("Cliente benchmark", carrinho);
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.moicano.lojinha.benchmark;
+
+import br.com.moicano.lojinha.dao.ItemPedidoDAO;
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.service.CheckoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escrita de pedidos e leitura dos itens de um pedido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PedidoDAOBenchmark {
+    private static final int PEDIDOS_EXISTENTES = 1_000;
+    private static final int ITENS_POR_PEDIDO = 5;
+    private static final int TAMANHO_CATALOGO = 1_000;
+
+    @Param({"mem", "file"})
+    public String banco;
+
+    private PedidoDAO pedidoDAO;
+    private ItemPedidoDAO itemPedidoDAO;
+
+    @Setup
+    public void preparar() {
+        // Os pedidos iniciais são gravados um a um, sem esperar pelo grupo a cada um
+        BancoDeBenchmark.iniciar(banco, false);
+        BancoDeBenchmark.popularCatalogo(TAMANHO_CATALOGO, Integer.MAX_VALUE / 2);
+        pedidoDAO = new PedidoDAO();
+        itemPedidoDAO = new ItemPedidoDAO();
+
+        CheckoutService checkout = new CheckoutService();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < PEDIDOS_EXISTENTES; i++) {
+            List<ItemPedido> itens = new ArrayList<>();
+            for (int j = 0; j < ITENS_POR_PEDIDO; j++) {
+                itens.add(new ItemPedido(null, 1 + random.nextInt(TAMANHO_CATALOGO), 1, 990));
+            }
+            checkout.finalizarCompra("Cliente " + i, itens);
+        }
+    }
+
+    @TearDown
+    public void encerrar() {
+        BancoDeBenchmark.encerrar();
+    }
+
+    @Benchmark
+    public Integer criarPedido() {
+        return pedidoDAO.criar(new Pedido(LocalDateTime.now(), 4_950, "Cliente benchmark", CheckoutService.STATUS_INICIAL));
+    }
+
+    @Benchmark
+    public List<ItemPedido> buscarItensPorPedidoId() {
+        return itemPedidoDAO.buscarPorPedidoId(1 + ThreadLocalRandom.current().nextInt(PEDIDOS_EXISTENTES));
+    }
+}
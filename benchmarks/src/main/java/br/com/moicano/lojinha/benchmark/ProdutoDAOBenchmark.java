@@ -0,0 +1,89 @@
+package br.com.moicano.lojinha.benchmark;
+
+import br.com.moicano.lojinha.dao.Pagina;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.model.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leituras do catálogo: com cache (caminho normal das telas) e direto no banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProdutoDAOBenchmark {
+
+    @Param({"mem", "file"})
+    public String banco;
+
+    @Param({"100", "10000"})
+    public int tamanhoCatalogo;
+
+    private ProdutoDAO produtoDAO;
+
+    @Setup
+    public void preparar() {
+        BancoDeBenchmark.iniciar(banco, false);
+        BancoDeBenchmark.popularCatalogo(tamanhoCatalogo, 1_000);
+        produtoDAO = new ProdutoDAO();
+    }
+
+    @TearDown
+    public void encerrar() {
+        BancoDeBenchmark.encerrar();
+    }
+
+    @Benchmark
+    public Produto buscarPorId() {
+        return produtoDAO.buscarPorId(idAleatorio());
+    }
+
+    @Benchmark
+    public Produto buscarPorIdSemCache() {
+        ProdutoDAO.limparCache();
+        return produtoDAO.buscarPorId(idAleatorio());
+    }
+
+    @Benchmark
+    public List<Produto> buscarTodos() {
+        return produtoDAO.buscarTodos();
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorCategoriaSemCache() {
+        ProdutoDAO.limparCache();
+        return produtoDAO.buscarPorCategoria(1 + ThreadLocalRandom.current().nextInt(BancoDeBenchmark.QUANTIDADE_CATEGORIAS));
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorCategoria() {
+        return produtoDAO.buscarPorCategoria(1 + ThreadLocalRandom.current().nextInt(BancoDeBenchmark.QUANTIDADE_CATEGORIAS));
+    }
+
+    @Benchmark
+    public Pagina<Produto> buscarPrimeiraPagina() {
+        return produtoDAO.buscarPagina(null, Pagina.TAMANHO_PADRAO);
+    }
+
+    private int idAleatorio() {
+        return 1 + ThreadLocalRandom.current().nextInt(tamanhoCatalogo);
+    }
+}
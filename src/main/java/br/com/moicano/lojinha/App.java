@@ -1,21 +1,54 @@
 package br.com.moicano.lojinha;
 
 // Imports do Admin (já existiam)
+import br.com.moicano.lojinha.api.ServidorApi;
+import br.com.moicano.lojinha.busca.IndiceBuscaProdutos;
 import br.com.moicano.lojinha.controller.CategoriaController;
 import br.com.moicano.lojinha.controller.ProdutoController;
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
 import br.com.moicano.lojinha.database.DatabaseConnection;
+import br.com.moicano.lojinha.exportacao.Exportador;
+import br.com.moicano.lojinha.exportacao.Formato;
+import br.com.moicano.lojinha.service.ArquivadorPedidos;
+import br.com.moicano.lojinha.service.FilaDespacho;
+import br.com.moicano.lojinha.service.GravadorPedidos;
 import br.com.moicano.lojinha.view.MenuPrincipalView;
 
 // Imports dos perfis novos
 import br.com.moicano.lojinha.view.ClienteView;
 import br.com.moicano.lojinha.view.EntregadorView;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 public class App {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 
-        // 1. Cria o banco de dados (com TODAS as tabelas corretas)
+        // 1. Aplica as migrações pendentes do banco (os dados existentes são mantidos)
         DatabaseConnection.initDatabase();
 
+        // Com --exportar <diretório> a loja só gera os arquivos de exportação e termina
+        int exportar = Arrays.asList(args).indexOf("--exportar");
+        if (exportar >= 0) {
+            exportar(args, exportar);
+            return;
+        }
+
+        // Monta o índice de busca de produtos (depois disso ele se atualiza sozinho)
+        IndiceBuscaProdutos.getInstance().reconstruir(new ProdutoDAO());
+        // Idem para a fila de despacho dos entregadores
+        FilaDespacho.getInstance().reconstruir(new PedidoDAO());
+        // Move os pedidos entregues antigos para o arquivo, em segundo plano
+        ArquivadorPedidos.getInstance().iniciar();
+
+        // Com --http a loja roda como API (sem menus) até o processo ser encerrado
+        if (Arrays.asList(args).contains("--http")) {
+            iniciarApi();
+            return;
+        }
+
         // 2. Prepara TODOS os "controladores" e "telas" de que vamos precisar
         MenuPrincipalView menuView = new MenuPrincipalView();
 
@@ -56,5 +89,37 @@ public class App {
         } while (opcao != 0);
 
         menuView.fechar();
+
+        // 5. Fecha as conexões do pool antes de sair
+        ArquivadorPedidos.getInstance().parar(5_000);
+        DatabaseConnection.shutdown();
+    }
+
+    // Formato e compressão: -Dlojinha.exportacao.formato=csv|jsonl -Dlojinha.exportacao.gzip=true
+    private static void exportar(String[] args, int posicao) throws IOException {
+        if (posicao + 1 >= args.length) {
+            System.err.println("ERRO: Informe o diretório de destino: --exportar <diretório>");
+            DatabaseConnection.shutdown();
+            return;
+        }
+        Formato formato = Formato.doNome(System.getProperty("lojinha.exportacao.formato", "csv"));
+        boolean gzip = Boolean.getBoolean("lojinha.exportacao.gzip");
+        try {
+            new Exportador(formato, gzip).exportarTudo(Path.of(args[posicao + 1]));
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private static void iniciarApi() throws IOException {
+        ServidorApi servidor = new ServidorApi(ServidorApi.PORTA_PADRAO);
+        // Ctrl+C: termina as requisições em andamento, grava os pedidos na fila e fecha o pool
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidor.parar(5);
+            GravadorPedidos.getInstance().parar(5_000);
+            ArquivadorPedidos.getInstance().parar(5_000);
+            DatabaseConnection.shutdown();
+        }, "lojinha-encerramento"));
+        servidor.iniciar();
     }
-}
\ No newline at end of file
+}
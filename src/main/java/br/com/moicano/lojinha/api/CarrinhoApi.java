@@ -0,0 +1,84 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.service.CarrinhoStore;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carrinho guardado no servidor (CarrinhoStore), para clientes que não querem
+ * controlar reservas por conta própria:
+ * POST /api/carrinhos, GET/DELETE /api/carrinhos/{id},
+ * POST /api/carrinhos/{id}/itens {produtoId, quantidade}, DELETE /api/carrinhos/{id}/itens/{produtoId},
+ * POST /api/carrinhos/{id}/checkout {cliente}
+ * Carrinho inexistente ou expirado -> 404.
+ */
+final class CarrinhoApi {
+    private static final String CARRINHO = "/api/carrinhos/([0-9a-f-]{36})";
+
+    private final CarrinhoStore carrinhoStore = CarrinhoStore.getInstance();
+    private final PedidoDAO pedidoDAO = new PedidoDAO();
+
+    void registrar(Roteador roteador) {
+        roteador.post("/api/carrinhos", req -> {
+                    String id = carrinhoStore.criar();
+                    return Resposta.criado(carrinho(id, List.of()));
+                })
+                .get(CARRINHO, req -> {
+                    String id = req.parametro(1);
+                    return Resposta.ok(carrinho(id, carrinhoStore.itens(id)));
+                })
+                .delete(CARRINHO, req -> {
+                    carrinhoStore.descartar(req.parametro(1));
+                    return Resposta.semConteudo();
+                })
+                .post(CARRINHO + "/itens", this::adicionar)
+                .delete(CARRINHO + "/itens/(\\d+)", req -> {
+                    String id = req.parametro(1);
+                    carrinhoStore.remover(id, req.parametroInt(2));
+                    return Resposta.ok(carrinho(id, carrinhoStore.itens(id)));
+                })
+                .post(CARRINHO + "/checkout", this::finalizarCompra);
+    }
+
+    private Resposta adicionar(Requisicao req) {
+        String id = req.parametro(1);
+        Map<String, Object> json = req.corpoJson();
+        int produtoId = Requisicao.inteiro(json, "produtoId");
+        int quantidade = Requisicao.inteiro(json, "quantidade");
+
+        carrinhoStore.adicionar(id, produtoId, quantidade);
+        return Resposta.ok(carrinho(id, carrinhoStore.itens(id)));
+    }
+
+    private Resposta finalizarCompra(Requisicao req) {
+        String id = req.parametro(1);
+        String cliente = Requisicao.texto(req.corpoJson(), "cliente");
+
+        Integer pedidoId = carrinhoStore.finalizar(id, cliente);
+
+        // Relido do banco: o total é o que foi gravado, não o que estava no carrinho um instante antes
+        Pedido pedido = pedidoDAO.buscarPorId(pedidoId);
+        return Resposta.criado(JsonModelos.pedido(pedido));
+    }
+
+    private static Map<String, Object> carrinho(String id, List<ItemPedido> itens) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("carrinhoId", id);
+        json.put("itens", JsonModelos.lista(itens, JsonModelos::item));
+        json.put("valorTotalCentavos", total(itens));
+        return json;
+    }
+
+    private static long total(List<ItemPedido> itens) {
+        long totalCentavos = 0;
+        for (ItemPedido item : itens) {
+            totalCentavos += item.getSubtotalCentavos();
+        }
+        return totalCentavos;
+    }
+}
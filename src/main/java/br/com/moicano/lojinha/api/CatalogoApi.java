@@ -0,0 +1,58 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.busca.IndiceBuscaProdutos;
+import br.com.moicano.lojinha.dao.CategoriaDAO;
+import br.com.moicano.lojinha.dao.Pagina;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.model.Produto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Catálogo (somente leitura):
+ * GET /api/produtos?cursor=&amp;tamanho=, GET /api/produtos/{id},
+ * GET /api/produtos/busca?q=&amp;limite=, GET /api/categorias
+ */
+final class CatalogoApi {
+    private static final int LIMITE_BUSCA_PADRAO = 10;
+    private static final int LIMITE_BUSCA_MAXIMO = 100;
+
+    private final ProdutoDAO produtoDAO = new ProdutoDAO();
+    private final CategoriaDAO categoriaDAO = new CategoriaDAO();
+
+    void registrar(Roteador roteador) {
+        roteador.get("/api/produtos", this::listarProdutos)
+                .get("/api/produtos/busca", this::buscarProdutos)
+                .get("/api/produtos/(\\d+)", this::buscarProduto)
+                .get("/api/categorias", req -> Resposta.ok(
+                        JsonModelos.lista(categoriaDAO.buscarTodas(), JsonModelos::categoria)));
+    }
+
+    private Resposta listarProdutos(Requisicao req) {
+        Pagina<Produto> pagina = produtoDAO.buscarPagina(req.query("cursor"), req.queryInt("tamanho", Pagina.TAMANHO_PADRAO));
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("itens", JsonModelos.lista(pagina.getItens(), JsonModelos::produto));
+        json.put("proximoCursor", pagina.getProximoCursor());
+        return Resposta.ok(json);
+    }
+
+    private Resposta buscarProdutos(Requisicao req) {
+        String consulta = req.query("q");
+        if (consulta == null || consulta.isBlank()) {
+            throw ErroApi.requisicaoInvalida("Parâmetro 'q' obrigatório");
+        }
+        int limite = Math.min(req.queryInt("limite", LIMITE_BUSCA_PADRAO), LIMITE_BUSCA_MAXIMO);
+        return Resposta.ok(JsonModelos.lista(
+                IndiceBuscaProdutos.getInstance().buscar(consulta, limite), JsonModelos::resultadoBusca));
+    }
+
+    private Resposta buscarProduto(Requisicao req) {
+        int id = req.parametroInt(1);
+        Produto produto = produtoDAO.buscarPorId(id);
+        if (produto == null) {
+            throw ErroApi.naoEncontrado("Produto não encontrado: " + id);
+        }
+        return Resposta.ok(JsonModelos.produto(produto));
+    }
+}
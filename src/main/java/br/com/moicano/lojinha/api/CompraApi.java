@@ -0,0 +1,112 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.dao.ItemPedidoDAO;
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.Produto;
+import br.com.moicano.lojinha.service.CheckoutService;
+import br.com.moicano.lojinha.service.ReservaEstoque;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carrinho e checkout. O carrinho fica com o cliente; o servidor segura o estoque
+ * com reservas enquanto ele compra:
+ * POST /api/reservas {produtoId, quantidade}, DELETE /api/reservas/{id},
+ * POST /api/pedidos {cliente, itens: [{produtoId, quantidade}], reservas: [ids]}
+ *   (cada reserva precisa ser de um dos produtos, sem passar da quantidade comprada;
+ *   com o cabeçalho Idempotency-Key, repetir o POST devolve o pedido original),
+ * GET /api/pedidos/{id}
+ */
+final class CompraApi {
+    // O ID da reserva é um UUID: só quem a criou o conhece
+    private static final String RESERVA = "/api/reservas/([0-9a-f-]{36})";
+
+    private final ProdutoDAO produtoDAO = new ProdutoDAO();
+    private final PedidoDAO pedidoDAO = new PedidoDAO();
+    private final ItemPedidoDAO itemPedidoDAO = new ItemPedidoDAO();
+    private final CheckoutService checkoutService = new CheckoutService();
+    private final ReservaEstoque reservaEstoque = ReservaEstoque.getInstance();
+
+    void registrar(Roteador roteador) {
+        roteador.post("/api/reservas", this::reservar)
+                .delete(RESERVA, req -> {
+                    reservaEstoque.liberar(req.parametro(1));
+                    return Resposta.semConteudo();
+                })
+                .post("/api/pedidos", this::finalizarCompra)
+                .get("/api/pedidos/(\\d+)", this::buscarPedido);
+    }
+
+    private Resposta reservar(Requisicao req) {
+        Map<String, Object> json = req.corpoJson();
+        int produtoId = Requisicao.inteiro(json, "produtoId");
+        int quantidade = Requisicao.inteiro(json, "quantidade");
+
+        String reservaId = reservaEstoque.reservar(produtoId, quantidade);
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("reservaId", reservaId);
+        resposta.put("produtoId", produtoId);
+        resposta.put("quantidade", quantidade);
+        return Resposta.criado(resposta);
+    }
+
+    private Resposta finalizarCompra(Requisicao req) {
+        Map<String, Object> json = req.corpoJson();
+        String cliente = Requisicao.texto(json, "cliente");
+
+        // O preço vem sempre do catálogo, nunca do cliente
+        List<ItemPedido> itens = new ArrayList<>();
+        for (Object linha : Requisicao.lista(json, "itens", true)) {
+            Map<String, Object> item = Requisicao.objeto(linha, "Cada item");
+            int produtoId = Requisicao.inteiro(item, "produtoId");
+            int quantidade = Requisicao.inteiro(item, "quantidade");
+            if (quantidade <= 0) {
+                throw ErroApi.requisicaoInvalida("Quantidade inválida para o produto " + produtoId);
+            }
+            Produto produto = produtoDAO.buscarPorId(produtoId);
+            if (produto == null) {
+                throw ErroApi.naoEncontrado("Produto não encontrado: " + produtoId);
+            }
+            ItemPedido itemPedido = new ItemPedido(null, produtoId, quantidade, produto.getPrecoCentavos());
+            itemPedido.setProdutoNome(produto.getNome());
+            itens.add(itemPedido);
+        }
+
+        List<String> reservas = new ArrayList<>();
+        for (Object reserva : Requisicao.lista(json, "reservas", false)) {
+            if (!(reserva instanceof String id)) {
+                throw ErroApi.requisicaoInvalida("Campo 'reservas' deve ser uma lista de IDs");
+            }
+            reservas.add(id);
+        }
+
+        Integer pedidoId = checkoutService.finalizarCompra(cliente, itens, reservas, req.cabecalho("Idempotency-Key"));
+
+        // Relido do banco: numa repetição com Idempotency-Key o pedido é o original,
+        // não o corpo desta requisição (que pode ter outros itens, e o status já pode ter mudado)
+        Pedido pedido = pedidoDAO.buscarPorId(pedidoId);
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("pedidoId", pedido.getId());
+        resposta.put("status", pedido.getStatus().getDescricao());
+        resposta.put("valorTotalCentavos", pedido.getValorTotalCentavos());
+        return Resposta.criado(resposta);
+    }
+
+    private Resposta buscarPedido(Requisicao req) {
+        int id = req.parametroInt(1);
+        Pedido pedido = pedidoDAO.buscarPorId(id);
+        if (pedido == null) {
+            throw ErroApi.naoEncontrado("Pedido não encontrado: " + id);
+        }
+        Map<String, Object> json = JsonModelos.pedido(pedido);
+        json.put("itens", JsonModelos.lista(itemPedidoDAO.buscarPorPedidoId(id), JsonModelos::item));
+        return Resposta.ok(json);
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.StatusPedido;
+import br.com.moicano.lojinha.service.FilaDespacho;
+
+/**
+ * Painel do entregador: GET /api/entregas (pedidos ativos, da fila de despacho),
+ * POST /api/entregas/proximo (pega o pedido que espera há mais tempo; 204 se não há),
+ * PUT /api/pedidos/{id}/status {status: "EM ROTA" | "ENTREGUE"}
+ * (transição não permitida a partir do status atual -> 409)
+ */
+final class EntregaApi {
+    private final PedidoDAO pedidoDAO = new PedidoDAO();
+    private final FilaDespacho filaDespacho = FilaDespacho.getInstance();
+
+    void registrar(Roteador roteador) {
+        roteador.get("/api/entregas", req -> Resposta.ok(
+                        JsonModelos.lista(filaDespacho.ativos(), JsonModelos::pedido)))
+                .post("/api/entregas/proximo", req -> {
+                    Pedido pedido = filaDespacho.pegarProximo();
+                    return pedido != null ? Resposta.ok(JsonModelos.pedido(pedido)) : Resposta.semConteudo();
+                })
+                .put("/api/pedidos/(\\d+)/status", this::atualizarStatus);
+    }
+
+    private Resposta atualizarStatus(Requisicao req) {
+        int pedidoId = req.parametroInt(1);
+        StatusPedido status = StatusPedido.daDescricao(Requisicao.texto(req.corpoJson(), "status"));
+
+        // Um UPDATE condicional só: o banco recusa se o status atual não leva ao novo
+        Pedido atualizado = pedidoDAO.transicionar(pedidoId, status);
+        return Resposta.ok(JsonModelos.pedido(atualizado));
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.moicano.lojinha.api;
+
+/**
+ * Erro com o status HTTP que deve voltar ao cliente (400, 404, ...).
+ */
+class ErroApi extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ErroApi(int status, String mensagem) {
+        super(mensagem);
+        this.status = status;
+    }
+
+    static ErroApi requisicaoInvalida(String mensagem) {
+        return new ErroApi(400, mensagem);
+    }
+
+    static ErroApi naoEncontrado(String mensagem) {
+        return new ErroApi(404, mensagem);
+    }
+
+    int getStatus() { return status; }
+}
@@ -0,0 +1,31 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.dao.FavoritoDAO;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+
+/**
+ * Favoritos: GET /api/favoritos, PUT /api/favoritos/{produtoId}, DELETE /api/favoritos/{produtoId}
+ */
+final class FavoritosApi {
+    private final FavoritoDAO favoritoDAO = new FavoritoDAO();
+    private final ProdutoDAO produtoDAO = new ProdutoDAO();
+
+    void registrar(Roteador roteador) {
+        roteador.get("/api/favoritos", req -> Resposta.ok(
+                        JsonModelos.lista(favoritoDAO.listarFavoritos(), JsonModelos::produto)))
+                .put("/api/favoritos/(\\d+)", this::adicionar)
+                .delete("/api/favoritos/(\\d+)", req -> {
+                    favoritoDAO.remover(req.parametroInt(1));
+                    return Resposta.semConteudo();
+                });
+    }
+
+    private Resposta adicionar(Requisicao req) {
+        int produtoId = req.parametroInt(1);
+        if (produtoDAO.buscarPorId(produtoId) == null) {
+            throw ErroApi.naoEncontrado("Produto não encontrado: " + produtoId);
+        }
+        favoritoDAO.adicionar(produtoId);
+        return Resposta.semConteudo();
+    }
+}
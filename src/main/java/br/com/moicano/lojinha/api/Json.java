@@ -0,0 +1,258 @@
+package br.com.moicano.lojinha.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON mínimo para a API, sem dependências externas.
+ *
+ * Escrita: Map (objeto), Iterable (array), String, Number, Boolean e null.
+ * Leitura: devolve Map&lt;String, Object&gt;, List&lt;Object&gt;, String, Long/Double,
+ * Boolean ou null. Objetos e arrays aninhados passam de {@value #PROFUNDIDADE_MAXIMA}
+ * níveis são recusados: o leitor é recursivo e um corpo como "[[[[..." estouraria a pilha.
+ */
+final class Json {
+    static final int PROFUNDIDADE_MAXIMA = 64;
+
+    private Json() {}
+
+    static String escrever(Object valor) {
+        StringBuilder sb = new StringBuilder(256);
+        escrever(sb, valor);
+        return sb.toString();
+    }
+
+    private static void escrever(StringBuilder sb, Object valor) {
+        if (valor == null) {
+            sb.append("null");
+        } else if (valor instanceof String texto) {
+            escreverTexto(sb, texto);
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            sb.append(valor);
+        } else if (valor instanceof Map<?, ?> mapa) {
+            sb.append('{');
+            boolean primeiro = true;
+            for (Map.Entry<?, ?> entry : mapa.entrySet()) {
+                if (!primeiro) sb.append(',');
+                primeiro = false;
+                escreverTexto(sb, String.valueOf(entry.getKey()));
+                sb.append(':');
+                escrever(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if (valor instanceof Iterable<?> lista) {
+            sb.append('[');
+            boolean primeiro = true;
+            for (Object item : lista) {
+                if (!primeiro) sb.append(',');
+                primeiro = false;
+                escrever(sb, item);
+            }
+            sb.append(']');
+        } else {
+            escreverTexto(sb, valor.toString());
+        }
+    }
+
+    private static void escreverTexto(StringBuilder sb, String texto) {
+        sb.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * @throws IllegalArgumentException se o texto não for JSON válido.
+     */
+    static Object ler(String texto) {
+        Leitor leitor = new Leitor(texto);
+        Object valor = leitor.valor();
+        leitor.pularEspacos();
+        if (leitor.pos < texto.length()) {
+            throw leitor.erro("conteúdo depois do fim do JSON");
+        }
+        return valor;
+    }
+
+    private static final class Leitor {
+        private final String texto;
+        private int pos;
+        private int profundidade;
+
+        private Leitor(String texto) {
+            this.texto = texto;
+        }
+
+        private Object valor() {
+            pularEspacos();
+            if (pos >= texto.length()) {
+                throw erro("fim inesperado");
+            }
+            char c = texto.charAt(pos);
+            return switch (c) {
+                case '{' -> objeto();
+                case '[' -> lista();
+                case '"' -> texto();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> numero();
+            };
+        }
+
+        private Map<String, Object> objeto() {
+            entrar();
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            pos++;
+            pularEspacos();
+            if (consumir('}')) {
+                profundidade--;
+                return mapa;
+            }
+            do {
+                pularEspacos();
+                if (pos >= texto.length() || texto.charAt(pos) != '"') {
+                    throw erro("esperava o nome de um campo");
+                }
+                String chave = texto();
+                pularEspacos();
+                if (!consumir(':')) {
+                    throw erro("esperava ':'");
+                }
+                mapa.put(chave, valor());
+                pularEspacos();
+            } while (consumir(','));
+            if (!consumir('}')) {
+                throw erro("esperava '}'");
+            }
+            profundidade--;
+            return mapa;
+        }
+
+        private List<Object> lista() {
+            entrar();
+            List<Object> lista = new ArrayList<>();
+            pos++;
+            pularEspacos();
+            if (consumir(']')) {
+                profundidade--;
+                return lista;
+            }
+            do {
+                lista.add(valor());
+                pularEspacos();
+            } while (consumir(','));
+            if (!consumir(']')) {
+                throw erro("esperava ']'");
+            }
+            profundidade--;
+            return lista;
+        }
+
+        private void entrar() {
+            if (++profundidade > PROFUNDIDADE_MAXIMA) {
+                throw erro("mais de " + PROFUNDIDADE_MAXIMA + " níveis de objetos/arrays aninhados");
+            }
+        }
+
+        private String texto() {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= texto.length()) {
+                    break;
+                }
+                char escape = texto.charAt(pos++);
+                switch (escape) {
+                    case '"', '\\', '/' -> sb.append(escape);
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > texto.length()) {
+                            throw erro("escape \\u incompleto");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw erro("escape \\u inválido");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw erro("escape inválido");
+                }
+            }
+            throw erro("texto sem aspas de fechamento");
+        }
+
+        private Object numero() {
+            int inicio = pos;
+            while (pos < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String numero = texto.substring(inicio, pos);
+            try {
+                if (numero.contains(".") || numero.contains("e") || numero.contains("E")) {
+                    return Double.parseDouble(numero);
+                }
+                return Long.parseLong(numero);
+            } catch (NumberFormatException e) {
+                pos = inicio;
+                throw erro("valor inválido");
+            }
+        }
+
+        private Object literal(String palavra, Object valor) {
+            if (!texto.startsWith(palavra, pos)) {
+                throw erro("valor inválido");
+            }
+            pos += palavra.length();
+            return valor;
+        }
+
+        private boolean consumir(char c) {
+            if (pos < texto.length() && texto.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void pularEspacos() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException erro(String motivo) {
+            return new IllegalArgumentException("JSON inválido na posição " + pos + ": " + motivo);
+        }
+    }
+}
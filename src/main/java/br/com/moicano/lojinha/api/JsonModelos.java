@@ -0,0 +1,98 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.busca.ResultadoBusca;
+import br.com.moicano.lojinha.model.Categoria;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.Produto;
+import br.com.moicano.lojinha.model.VendaResumo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Representação JSON dos modelos. Dinheiro sai em centavos (inteiro), como no banco.
+ */
+final class JsonModelos {
+
+    private JsonModelos() {}
+
+    static Map<String, Object> produto(Produto produto) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", produto.getId());
+        json.put("nome", produto.getNome());
+        json.put("descricao", produto.getDescricao());
+        json.put("precoCentavos", produto.getPrecoCentavos());
+        json.put("quantidade", produto.getQuantidade());
+        json.put("categoriaId", produto.getCategoriaId());
+        json.put("categoriaNome", produto.getCategoriaNome());
+        json.put("dosagem", produto.getDosagem());
+        json.put("requerReceita", produto.isRequerReceita());
+        json.put("versao", produto.getVersao());
+        return json;
+    }
+
+    static Map<String, Object> categoria(Categoria categoria) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", categoria.getId());
+        json.put("nome", categoria.getNome());
+        json.put("descricao", categoria.getDescricao());
+        return json;
+    }
+
+    static Map<String, Object> pedido(Pedido pedido) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", pedido.getId());
+        json.put("data", pedido.getData() != null ? pedido.getData().toString() : null);
+        json.put("clienteNome", pedido.getClienteNome());
+        json.put("status", pedido.getStatus().getDescricao());
+        json.put("valorTotalCentavos", pedido.getValorTotalCentavos());
+        json.put("versao", pedido.getVersao());
+        return json;
+    }
+
+    static Map<String, Object> item(ItemPedido item) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("produtoId", item.getProdutoId());
+        json.put("produtoNome", item.getProdutoNome());
+        json.put("quantidade", item.getQuantidade());
+        json.put("precoUnitarioCentavos", item.getPrecoUnitarioCentavos());
+        json.put("subtotalCentavos", item.getSubtotalCentavos());
+        return json;
+    }
+
+    static Map<String, Object> resultadoBusca(ResultadoBusca resultado) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("produtoId", resultado.produtoId());
+        json.put("nome", resultado.nome());
+        json.put("dosagem", resultado.dosagem());
+        json.put("pontuacao", resultado.pontuacao());
+        return json;
+    }
+
+    // Total por dia (com "dia" e "pedidos") ou por produto/categoria (com "id" e "nome")
+    static Map<String, Object> venda(VendaResumo venda) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        if (venda.getDia() != null) {
+            json.put("dia", venda.getDia().toString());
+            json.put("pedidos", venda.getPedidos());
+        } else {
+            json.put("id", venda.getId());
+            json.put("nome", venda.getNome());
+        }
+        json.put("unidades", venda.getUnidades());
+        json.put("receitaCentavos", venda.getReceitaCentavos());
+        return json;
+    }
+
+    static <T> List<Map<String, Object>> lista(List<T> itens, Function<T, Map<String, Object>> conversor) {
+        List<Map<String, Object>> json = new ArrayList<>(itens.size());
+        for (T item : itens) {
+            json.add(conversor.apply(item));
+        }
+        return json;
+    }
+}
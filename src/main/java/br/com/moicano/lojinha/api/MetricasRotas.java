@@ -0,0 +1,50 @@
+package br.com.moicano.lojinha.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tempo de atendimento por rota (contagem, erros, média e máximo).
+ * A chave é o modelo da rota ("GET /api/produtos/(\d+)"), não o caminho pedido,
+ * para que a quantidade de entradas não cresça com os IDs.
+ */
+final class MetricasRotas {
+    private final Map<String, Contadores> porRota = new ConcurrentHashMap<>();
+
+    void registrar(String rota, long nanos, int status) {
+        Contadores contadores = porRota.computeIfAbsent(rota, r -> new Contadores());
+        contadores.requisicoes.increment();
+        contadores.totalNanos.add(nanos);
+        contadores.maxNanos.accumulate(nanos);
+        if (status >= 500) {
+            contadores.erros.increment();
+        }
+    }
+
+    List<Map<String, Object>> resumo() {
+        List<Map<String, Object>> resumo = new ArrayList<>();
+        porRota.forEach((rota, contadores) -> {
+            long requisicoes = contadores.requisicoes.sum();
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("rota", rota);
+            linha.put("requisicoes", requisicoes);
+            linha.put("erros", contadores.erros.sum());
+            linha.put("mediaMs", requisicoes == 0 ? 0.0 : contadores.totalNanos.sum() / (double) requisicoes / 1_000_000.0);
+            linha.put("maxMs", contadores.maxNanos.get() / 1_000_000.0);
+            resumo.add(linha);
+        });
+        return resumo;
+    }
+
+    private static final class Contadores {
+        private final LongAdder requisicoes = new LongAdder();
+        private final LongAdder erros = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
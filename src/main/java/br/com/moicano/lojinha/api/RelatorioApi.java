@@ -0,0 +1,47 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.dao.RelatorioDAO;
+import br.com.moicano.lojinha.service.GravadorPedidos;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Relatórios de vendas, lidos dos agregados (RelatorioDAO).
+ * Período: ?de=AAAA-MM-DD&ate=AAAA-MM-DD (padrão: os últimos 30 dias).
+ * GET /api/relatorios/vendas (por dia), GET /api/relatorios/categorias,
+ * GET /api/relatorios/produtos?limite=10 (mais vendidos),
+ * POST /api/relatorios/reconstruir (recalcula os agregados a partir dos pedidos)
+ */
+final class RelatorioApi {
+    private static final int DIAS_PADRAO = 30;
+    private static final int LIMITE_MAXIMO = 100;
+
+    private final RelatorioDAO relatorioDAO = new RelatorioDAO();
+
+    void registrar(Roteador roteador) {
+        roteador.get("/api/relatorios/vendas", req -> Resposta.ok(JsonModelos.lista(
+                        relatorioDAO.vendasPorDia(de(req), ate(req)), JsonModelos::venda)))
+                .get("/api/relatorios/categorias", req -> Resposta.ok(JsonModelos.lista(
+                        relatorioDAO.vendasPorCategoria(de(req), ate(req)), JsonModelos::venda)))
+                .get("/api/relatorios/produtos", this::maisVendidos)
+                .post("/api/relatorios/reconstruir", req -> Resposta.ok(
+                        Map.of("dias", GravadorPedidos.getInstance().reconstruirRelatorios())));
+    }
+
+    private Resposta maisVendidos(Requisicao req) {
+        int limite = req.queryInt("limite", 10);
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw ErroApi.requisicaoInvalida("'limite' deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+        return Resposta.ok(JsonModelos.lista(relatorioDAO.maisVendidos(de(req), ate(req), limite), JsonModelos::venda));
+    }
+
+    private static LocalDate ate(Requisicao req) {
+        return req.queryData("ate", LocalDate.now());
+    }
+
+    private static LocalDate de(Requisicao req) {
+        return req.queryData("de", ate(req).minusDays(DIAS_PADRAO - 1));
+    }
+}
@@ -0,0 +1,160 @@
+package br.com.moicano.lojinha.api;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Acesso à requisição HTTP para as rotas: parâmetros do caminho, da query e corpo JSON.
+ * Valores ausentes ou mal formados viram ErroApi 400.
+ */
+final class Requisicao {
+    // Corpo maior que isso é recusado (um pedido com centenas de itens cabe com folga)
+    private static final int TAMANHO_MAXIMO_CORPO = 1024 * 1024;
+
+    private final HttpExchange exchange;
+    private final Matcher caminho;
+    private Map<String, String> query;
+
+    Requisicao(HttpExchange exchange, Matcher caminho) {
+        this.exchange = exchange;
+        this.caminho = caminho;
+    }
+
+    // Grupo capturado pela expressão da rota, ex: o ID em /api/produtos/(\d+)
+    String parametro(int grupo) {
+        return caminho.group(grupo);
+    }
+
+    int parametroInt(int grupo) {
+        return converterInt(caminho.group(grupo), "caminho");
+    }
+
+    // Cabeçalho HTTP (sem diferenciar maiúsculas), ou null
+    String cabecalho(String nome) {
+        return exchange.getRequestHeaders().getFirst(nome);
+    }
+
+    String query(String nome) {
+        if (query == null) {
+            query = lerQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return query.get(nome);
+    }
+
+    int queryInt(String nome, int padrao) {
+        String valor = query(nome);
+        return valor == null || valor.isEmpty() ? padrao : converterInt(valor, nome);
+    }
+
+    // Data no formato ISO (2024-05-31) ou o padrão, se o parâmetro não veio
+    LocalDate queryData(String nome, LocalDate padrao) {
+        String valor = query(nome);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw ErroApi.requisicaoInvalida("Data inválida para '" + nome + "' (use AAAA-MM-DD): " + valor);
+        }
+    }
+
+    Map<String, Object> corpoJson() {
+        String texto;
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(TAMANHO_MAXIMO_CORPO + 1);
+            if (bytes.length > TAMANHO_MAXIMO_CORPO) {
+                throw new ErroApi(413, "Corpo da requisição maior que " + TAMANHO_MAXIMO_CORPO + " bytes");
+            }
+            texto = new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw ErroApi.requisicaoInvalida("Não foi possível ler o corpo da requisição: " + e.getMessage());
+        }
+
+        if (texto.isBlank()) {
+            throw ErroApi.requisicaoInvalida("Corpo JSON obrigatório");
+        }
+        Object valor;
+        try {
+            valor = Json.ler(texto);
+        } catch (IllegalArgumentException e) {
+            throw ErroApi.requisicaoInvalida(e.getMessage());
+        }
+        if (!(valor instanceof Map<?, ?>)) {
+            throw ErroApi.requisicaoInvalida("O corpo deve ser um objeto JSON");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> objeto = (Map<String, Object>) valor;
+        return objeto;
+    }
+
+    // --- Leitura de campos do corpo JSON ---
+
+    static String texto(Map<String, Object> json, String campo) {
+        Object valor = json.get(campo);
+        if (!(valor instanceof String texto) || texto.isBlank()) {
+            throw ErroApi.requisicaoInvalida("Campo '" + campo + "' obrigatório (texto)");
+        }
+        return texto;
+    }
+
+    static int inteiro(Map<String, Object> json, String campo) {
+        Object valor = json.get(campo);
+        if (!(valor instanceof Long numero) || numero < Integer.MIN_VALUE || numero > Integer.MAX_VALUE) {
+            throw ErroApi.requisicaoInvalida("Campo '" + campo + "' obrigatório (inteiro)");
+        }
+        return numero.intValue();
+    }
+
+    static List<?> lista(Map<String, Object> json, String campo, boolean obrigatorio) {
+        Object valor = json.get(campo);
+        if (valor == null && !obrigatorio) {
+            return List.of();
+        }
+        if (!(valor instanceof List<?> lista)) {
+            throw ErroApi.requisicaoInvalida("Campo '" + campo + "' obrigatório (lista)");
+        }
+        return lista;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> objeto(Object valor, String descricao) {
+        if (!(valor instanceof Map<?, ?>)) {
+            throw ErroApi.requisicaoInvalida(descricao + " deve ser um objeto JSON");
+        }
+        return (Map<String, Object>) valor;
+    }
+
+    private static int converterInt(String valor, String nome) {
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw ErroApi.requisicaoInvalida("Valor inválido para '" + nome + "': " + valor);
+        }
+    }
+
+    private static Map<String, String> lerQuery(String raw) {
+        Map<String, String> parametros = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return parametros;
+        }
+        for (String par : raw.split("&")) {
+            int igual = par.indexOf('=');
+            String nome = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.putIfAbsent(URLDecoder.decode(nome, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.moicano.lojinha.api;
+
+/**
+ * Resultado de uma rota: status HTTP e o corpo (convertido para JSON; null = sem corpo).
+ */
+record Resposta(int status, Object corpo) {
+
+    static Resposta ok(Object corpo) {
+        return new Resposta(200, corpo);
+    }
+
+    static Resposta criado(Object corpo) {
+        return new Resposta(201, corpo);
+    }
+
+    static Resposta semConteudo() {
+        return new Resposta(204, null);
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.dao.ConflitoConcorrenciaException;
+import br.com.moicano.lojinha.service.ServicoIndisponivelException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLTimeoutException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encaminha cada requisição para a rota (método + expressão do caminho) que a atende,
+ * converte a Resposta em JSON e as exceções em status HTTP:
+ * ErroApi -> o status dele; IllegalArgumentException -> 400; NoSuchElementException -> 404;
+ * IllegalStateException e conflito de versão -> 409; pool de conexões esgotado -> 503;
+ * o resto -> 500, com uma mensagem genérica (o detalhe vai para o log).
+ * Também mede o tempo de cada requisição (cabeçalho Server-Timing e MetricasRotas).
+ */
+final class Roteador implements HttpHandler {
+
+    @FunctionalInterface
+    interface Acao {
+        Resposta atender(Requisicao requisicao);
+    }
+
+    private record Rota(String metodo, Pattern caminho, String nome, Acao acao) {}
+
+    private final List<Rota> rotas = new CopyOnWriteArrayList<>();
+    private final MetricasRotas metricas;
+
+    Roteador(MetricasRotas metricas) {
+        this.metricas = metricas;
+    }
+
+    Roteador get(String caminho, Acao acao) { return rota("GET", caminho, acao); }
+
+    Roteador post(String caminho, Acao acao) { return rota("POST", caminho, acao); }
+
+    Roteador put(String caminho, Acao acao) { return rota("PUT", caminho, acao); }
+
+    Roteador delete(String caminho, Acao acao) { return rota("DELETE", caminho, acao); }
+
+    private Roteador rota(String metodo, String caminho, Acao acao) {
+        rotas.add(new Rota(metodo, Pattern.compile(caminho), metodo + " " + caminho, acao));
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        long inicio = System.nanoTime();
+        String nomeRota = exchange.getRequestMethod() + " (sem rota)";
+        Resposta resposta;
+        try {
+            String caminho = exchange.getRequestURI().getPath();
+            boolean caminhoExiste = false;
+            Rota escolhida = null;
+            Matcher matcher = null;
+            for (Rota rota : rotas) {
+                Matcher m = rota.caminho.matcher(caminho);
+                if (m.matches()) {
+                    caminhoExiste = true;
+                    if (rota.metodo.equals(exchange.getRequestMethod())) {
+                        escolhida = rota;
+                        matcher = m;
+                        break;
+                    }
+                }
+            }
+
+            if (escolhida == null) {
+                resposta = caminhoExiste
+                        ? erro(405, "Método não permitido")
+                        : erro(404, "Rota não encontrada: " + caminho);
+            } else {
+                nomeRota = escolhida.nome;
+                resposta = escolhida.acao.atender(new Requisicao(exchange, matcher));
+            }
+        } catch (ErroApi e) {
+            resposta = erro(e.getStatus(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            resposta = erro(400, e.getMessage());
+        } catch (NoSuchElementException e) {
+            resposta = erro(404, e.getMessage());
+        } catch (ServicoIndisponivelException e) {
+            // Fila de pedidos cheia, limite de carrinhos, encerramento: o cliente pode tentar de novo
+            resposta = erro(503, e.getMessage());
+        } catch (IllegalStateException | ConflitoConcorrenciaException e) {
+            resposta = erro(409, e.getMessage());
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof SQLTimeoutException) {
+                // Pool de conexões saturado: o cliente pode tentar de novo daqui a pouco
+                resposta = erro(503, "Servidor ocupado, tente novamente.");
+            } else {
+                // O detalhe (SQL, nomes de tabelas...) fica no log, não na resposta
+                System.err.println("ERRO: Falha em " + nomeRota + ": " + e.getMessage());
+                e.printStackTrace();
+                resposta = erro(500, "Erro interno");
+            }
+        }
+
+        try {
+            escrever(exchange, resposta, inicio);
+        } finally {
+            exchange.close();
+            metricas.registrar(nomeRota, System.nanoTime() - inicio, resposta.status());
+        }
+    }
+
+    private static Resposta erro(int status, String mensagem) {
+        return new Resposta(status, Map.of("erro", mensagem != null ? mensagem : "Erro interno"));
+    }
+
+    // Sempre com Content-Length (ou sem corpo): é o que permite manter a conexão aberta (keep-alive)
+    private static void escrever(HttpExchange exchange, Resposta resposta, long inicio) throws IOException {
+        exchange.getResponseHeaders().set("Server-Timing",
+                String.format(Locale.ROOT, "app;dur=%.3f", (System.nanoTime() - inicio) / 1_000_000.0));
+        if (resposta.corpo() == null) {
+            exchange.sendResponseHeaders(resposta.status(), -1);
+            return;
+        }
+        byte[] corpo = Json.escrever(resposta.corpo()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(resposta.status(), corpo.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(corpo);
+        }
+    }
+}
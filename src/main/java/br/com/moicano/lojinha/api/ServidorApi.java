@@ -0,0 +1,149 @@
+package br.com.moicano.lojinha.api;
+
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.database.DatabaseConnection;
+import br.com.moicano.lojinha.database.PoolStats;
+import br.com.moicano.lojinha.service.ArquivadorPedidos;
+import br.com.moicano.lojinha.service.GravadorPedidos;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor HTTP/JSON embarcado (com.sun.net.httpserver, do próprio JDK) sobre os DAOs.
+ *
+ * Dois modos de execução (lojinha.http.modo):
+ * - "virtual" (padrão): uma virtual thread por requisição. Bloquear no JDBC não
+ *   ocupa uma thread do sistema, e quem limita a concorrência é o semáforo do pool
+ *   de conexões (no máximo maxSize requisições no banco; as outras esperam na fila dele);
+ * - "plataforma": pool de threads limitado, com fila limitada; quando a fila enche,
+ *   a thread que aceita conexões atende a requisição ela mesma, o que segura a
+ *   entrada de novas conexões em vez de acumular trabalho sem limite.
+ * As respostas sempre levam Content-Length, então o cliente pode reaproveitar a
+ * conexão (keep-alive).
+ *
+ * Configuração (System properties): lojinha.http.porta (8080), lojinha.http.modo (virtual),
+ * lojinha.http.threads (16) e lojinha.http.fila (256) no modo plataforma,
+ * lojinha.http.keepAliveSegundos (30).
+ */
+public class ServidorApi {
+    public static final int PORTA_PADRAO = Integer.getInteger("lojinha.http.porta", 8080);
+    private static final int THREADS = Integer.getInteger("lojinha.http.threads", 16);
+    private static final int FILA = Integer.getInteger("lojinha.http.fila", 256);
+    private static final boolean VIRTUAL = !"plataforma".equalsIgnoreCase(System.getProperty("lojinha.http.modo", "virtual"));
+
+    static {
+        // O HttpServer do JDK lê estas propriedades uma vez; precisam existir antes da primeira instância
+        System.setProperty("sun.net.httpserver.idleInterval",
+                System.getProperty("sun.net.httpserver.idleInterval",
+                        Integer.getInteger("lojinha.http.keepAliveSegundos", 30).toString()));
+        System.setProperty("sun.net.httpserver.maxIdleConnections",
+                System.getProperty("sun.net.httpserver.maxIdleConnections", "256"));
+        // Cabeçalho e corpo saem em escritas separadas: sem TCP_NODELAY o algoritmo de Nagle
+        // segura o corpo até o ACK atrasado do cliente (~40 ms por requisição em keep-alive)
+        System.setProperty("sun.net.httpserver.nodelay",
+                System.getProperty("sun.net.httpserver.nodelay", "true"));
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MetricasRotas metricas = new MetricasRotas();
+
+    public ServidorApi(int porta) throws IOException {
+        this.executor = VIRTUAL ? criarExecutorVirtual() : criarExecutorPlataforma();
+
+        Roteador roteador = new Roteador(metricas);
+        new CatalogoApi().registrar(roteador);
+        new CompraApi().registrar(roteador);
+        new CarrinhoApi().registrar(roteador);
+        new FavoritosApi().registrar(roteador);
+        new EntregaApi().registrar(roteador);
+        new RelatorioApi().registrar(roteador);
+        roteador.get("/api/metricas", req -> Resposta.ok(metricas()));
+
+        this.server = HttpServer.create(new InetSocketAddress(porta), FILA);
+        server.createContext("/api", roteador);
+        server.setExecutor(executor);
+    }
+
+    public void iniciar() {
+        server.start();
+        String modo = VIRTUAL ? "virtual threads" : THREADS + " threads, fila " + FILA;
+        System.out.println("SUCESSO: API HTTP ouvindo em http://localhost:" + getPorta() + "/api (" + modo + ").");
+    }
+
+    /**
+     * Para de aceitar conexões e espera as requisições em andamento terminarem.
+     */
+    public void parar(int segundosEspera) {
+        server.stop(segundosEspera);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(segundosEspera, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService criarExecutorVirtual() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("lojinha-http-", 1).factory());
+    }
+
+    private static ExecutorService criarExecutorPlataforma() {
+        AtomicInteger contador = new AtomicInteger();
+        return new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(FILA),
+                r -> {
+                    Thread t = new Thread(r, "lojinha-http-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public int getPorta() {
+        return server.getAddress().getPort();
+    }
+
+    private Map<String, Object> metricas() {
+        PoolStats pool = DatabaseConnection.getPoolStats();
+        Map<String, Object> poolJson = new LinkedHashMap<>();
+        poolJson.put("total", pool.total());
+        poolJson.put("ociosas", pool.idle());
+        poolJson.put("emUso", pool.active());
+        poolJson.put("aguardando", pool.waiting());
+        poolJson.put("emprestimos", pool.borrowed());
+        poolJson.put("timeouts", pool.timeouts());
+        poolJson.put("esperaMediaMs", pool.avgWaitMs());
+        poolJson.put("statementHitRate", pool.statementHitRate());
+
+        Map<String, Object> executorJson = new LinkedHashMap<>();
+        executorJson.put("modo", VIRTUAL ? "virtual" : "plataforma");
+        if (executor instanceof ThreadPoolExecutor threads) {
+            executorJson.put("threadsAtivas", threads.getActiveCount());
+            executorJson.put("fila", threads.getQueue().size());
+            executorJson.put("concluidas", threads.getCompletedTaskCount());
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("rotas", metricas.resumo());
+        json.put("executor", executorJson);
+        json.put("pool", poolJson);
+        json.put("cacheProdutos", ProdutoDAO.getCacheStats().toString());
+        json.put("pedidosPorCommit", GravadorPedidos.getInstance().mediaPorGrupo());
+        json.put("pedidosArquivados", ArquivadorPedidos.getInstance().totalArquivados());
+        return json;
+    }
+}
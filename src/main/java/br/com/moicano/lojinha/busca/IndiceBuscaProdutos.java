@@ -0,0 +1,251 @@
+package br.com.moicano.lojinha.busca;
+
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.dao.ProdutoListener;
+import br.com.moicano.lojinha.model.Produto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice de busca em memória sobre nome, dosagem e descrição dos produtos.
+ *
+ * Montado na inicialização a partir do ProdutoDAO e mantido em dia pelos avisos
+ * de escrita do DAO (ProdutoListener). Uma busca não toca no banco:
+ * - termos exatos valem mais que prefixos ("dipi" -> "dipirona"),
+ *   que valem mais que termos parecidos ("dipirone" -> "dipirona");
+ * - um termo no nome vale mais que na dosagem, que vale mais que na descrição.
+ */
+public class IndiceBuscaProdutos implements ProdutoListener {
+    private static final int PESO_NOME = 3;
+    private static final int PESO_DOSAGEM = 2;
+    private static final int PESO_DESCRICAO = 1;
+
+    private static final double FATOR_EXATO = 1.0;
+    private static final double FATOR_PREFIXO = 0.6;
+    private static final double FATOR_APROXIMADO = 0.4;
+
+    // Limite de termos expandidos por prefixo, para prefixos curtos não varrerem o índice todo
+    private static final int LIMITE_TERMOS_PREFIXO = 200;
+
+    private static volatile IndiceBuscaProdutos instance;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private TrieTermos trie = new TrieTermos();
+    // termo -> (produtoId -> maior peso do termo naquele produto)
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final Map<Integer, Documento> documentos = new HashMap<>();
+
+    private IndiceBuscaProdutos() {}
+
+    // Singleton: o índice é único e já se registra para receber as escritas do ProdutoDAO
+    public static IndiceBuscaProdutos getInstance() {
+        if (instance == null) {
+            synchronized (IndiceBuscaProdutos.class) {
+                if (instance == null) {
+                    IndiceBuscaProdutos indice = new IndiceBuscaProdutos();
+                    ProdutoDAO.adicionarListener(indice);
+                    instance = indice;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * (Re)constrói o índice lendo o catálogo em streaming.
+     * @return quantos produtos foram indexados.
+     */
+    public int reconstruir(ProdutoDAO produtoDAO) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentos.clear();
+            trie = new TrieTermos();
+            try (Stream<Produto> produtos = produtoDAO.streamTodos()) {
+                produtos.forEach(this::indexar);
+            }
+            return documentos.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca produtos pelo texto digitado.
+     * @param limite quantos resultados devolver (os de maior pontuação).
+     */
+    public List<ResultadoBusca> buscar(String consulta, int limite) {
+        List<String> tokens = NormalizadorTexto.tokenizar(consulta);
+        if (tokens.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        Map<Integer, Double> pontuacoes = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                pontuarToken(token, pontuacoes);
+            }
+            return melhores(pontuacoes, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sugestões para o que o usuário está digitando (busca só por prefixo)
+    public List<String> autocompletar(String prefixo, int limite) {
+        String normalizado = NormalizadorTexto.normalizar(prefixo).trim();
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.comPrefixo(normalizado, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void produtoSalvo(Produto produto) {
+        lock.writeLock().lock();
+        try {
+            desindexar(produto.getId());
+            indexar(produto);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void produtoRemovido(int produtoId) {
+        lock.writeLock().lock();
+        try {
+            desindexar(produtoId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Soma na pontuação de cada produto o melhor casamento deste token da consulta
+    private void pontuarToken(String token, Map<Integer, Double> pontuacoes) {
+        Map<Integer, Double> melhorPorProduto = new HashMap<>();
+
+        acumular(token, FATOR_EXATO, melhorPorProduto);
+
+        if (token.length() >= 2) {
+            for (String termo : trie.comPrefixo(token, LIMITE_TERMOS_PREFIXO)) {
+                if (!termo.equals(token)) {
+                    acumular(termo, FATOR_PREFIXO, melhorPorProduto);
+                }
+            }
+        }
+
+        int maxDistancia = distanciaPermitida(token);
+        if (maxDistancia > 0) {
+            for (Map.Entry<String, Integer> proximo : trie.proximos(token, maxDistancia).entrySet()) {
+                if (proximo.getValue() > 0) {
+                    acumular(proximo.getKey(), FATOR_APROXIMADO / proximo.getValue(), melhorPorProduto);
+                }
+            }
+        }
+
+        melhorPorProduto.forEach((id, valor) -> pontuacoes.merge(id, valor, Double::sum));
+    }
+
+    private void acumular(String termo, double fator, Map<Integer, Double> melhorPorProduto) {
+        Map<Integer, Integer> produtos = postings.get(termo);
+        if (produtos == null) {
+            return;
+        }
+        produtos.forEach((id, peso) -> melhorPorProduto.merge(id, peso * fator, Math::max));
+    }
+
+    // Palavras curtas não toleram erro (viraria qualquer coisa); longas toleram até 2
+    private static int distanciaPermitida(String token) {
+        if (token.length() < 4) {
+            return 0;
+        }
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    // Top-k com um heap de tamanho k, em vez de ordenar todos os candidatos
+    private List<ResultadoBusca> melhores(Map<Integer, Double> pontuacoes, int limite) {
+        Comparator<ResultadoBusca> ordem = Comparator.comparingDouble(ResultadoBusca::pontuacao)
+                .thenComparing(ResultadoBusca::nome, Comparator.reverseOrder());
+        PriorityQueue<ResultadoBusca> heap = new PriorityQueue<>(limite + 1, ordem);
+
+        for (Map.Entry<Integer, Double> entry : pontuacoes.entrySet()) {
+            Documento doc = documentos.get(entry.getKey());
+            heap.offer(new ResultadoBusca(doc.id, doc.nome, doc.dosagem, entry.getValue()));
+            if (heap.size() > limite) {
+                heap.poll();
+            }
+        }
+
+        List<ResultadoBusca> resultado = new ArrayList<>(heap);
+        resultado.sort(ordem.reversed());
+        return resultado;
+    }
+
+    private void indexar(Produto produto) {
+        Map<String, Integer> termos = new HashMap<>();
+        adicionarTermos(termos, produto.getNome(), PESO_NOME);
+        adicionarTermos(termos, produto.getDosagem(), PESO_DOSAGEM);
+        adicionarTermos(termos, produto.getDescricao(), PESO_DESCRICAO);
+
+        Documento doc = new Documento(produto.getId(), produto.getNome(), produto.getDosagem(), termos.keySet());
+        documentos.put(doc.id, doc);
+        termos.forEach((termo, peso) -> {
+            Map<Integer, Integer> produtos = postings.get(termo);
+            if (produtos == null) {
+                produtos = new HashMap<>();
+                postings.put(termo, produtos);
+                trie.adicionar(termo);
+            }
+            produtos.put(doc.id, peso);
+        });
+    }
+
+    private void desindexar(int produtoId) {
+        Documento doc = documentos.remove(produtoId);
+        if (doc == null) {
+            return;
+        }
+        for (String termo : doc.termos) {
+            Map<Integer, Integer> produtos = postings.get(termo);
+            if (produtos != null) {
+                produtos.remove(produtoId);
+                if (produtos.isEmpty()) {
+                    postings.remove(termo);
+                    trie.remover(termo);
+                }
+            }
+        }
+    }
+
+    private static void adicionarTermos(Map<String, Integer> termos, String texto, int peso) {
+        for (String token : NormalizadorTexto.tokenizar(texto)) {
+            termos.merge(token, peso, Math::max);
+        }
+    }
+
+    private record Documento(int id, String nome, String dosagem, Set<String> termos) {}
+}
@@ -0,0 +1,13 @@
+package br.com.moicano.lojinha.busca;
+
+/**
+ * Um produto encontrado pela busca, com a pontuação de relevância.
+ */
+public record ResultadoBusca(int produtoId, String nome, String dosagem, double pontuacao) {
+
+    @Override
+    public String toString() {
+        String infoDosagem = (dosagem != null && !dosagem.isEmpty()) ? " (" + dosagem + ")" : "";
+        return String.format("ID: %d | %s%s", produtoId, nome, infoDosagem);
+    }
+}
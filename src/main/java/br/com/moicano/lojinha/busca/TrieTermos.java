@@ -0,0 +1,114 @@
+package br.com.moicano.lojinha.busca;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Árvore de prefixos com os termos do índice.
+ * Responde "quais termos começam com X" (autocompletar) e "quais termos estão
+ * a no máximo N edições de X" (tolerância a erros de digitação), percorrendo
+ * só os ramos que ainda podem dar resultado.
+ * Não é thread-safe: o IndiceBuscaProdutos controla o acesso.
+ */
+class TrieTermos {
+
+    private static final class No {
+        private final Map<Character, No> filhos = new HashMap<>();
+        private String termo; // != null quando um termo termina neste nó
+    }
+
+    private final No raiz = new No();
+
+    void adicionar(String termo) {
+        No no = raiz;
+        for (int i = 0; i < termo.length(); i++) {
+            no = no.filhos.computeIfAbsent(termo.charAt(i), c -> new No());
+        }
+        no.termo = termo;
+    }
+
+    // Remove o termo e poda os nós que ficaram sem uso
+    void remover(String termo) {
+        remover(raiz, termo, 0);
+    }
+
+    private boolean remover(No no, String termo, int i) {
+        if (i == termo.length()) {
+            no.termo = null;
+        } else {
+            No filho = no.filhos.get(termo.charAt(i));
+            if (filho != null && remover(filho, termo, i + 1)) {
+                no.filhos.remove(termo.charAt(i));
+            }
+        }
+        return no.termo == null && no.filhos.isEmpty();
+    }
+
+    List<String> comPrefixo(String prefixo, int limite) {
+        No no = raiz;
+        for (int i = 0; i < prefixo.length() && no != null; i++) {
+            no = no.filhos.get(prefixo.charAt(i));
+        }
+        List<String> termos = new ArrayList<>();
+        if (no != null) {
+            coletar(no, termos, limite);
+        }
+        return termos;
+    }
+
+    private void coletar(No no, List<String> termos, int limite) {
+        if (termos.size() >= limite) {
+            return;
+        }
+        if (no.termo != null) {
+            termos.add(no.termo);
+        }
+        for (No filho : no.filhos.values()) {
+            coletar(filho, termos, limite);
+        }
+    }
+
+    /**
+     * Termos com distância de edição (Levenshtein) até maxDistancia.
+     * Cada nó calcula uma linha da matriz de distâncias a partir da linha do pai;
+     * se o menor valor da linha já passou do limite, o ramo inteiro é descartado.
+     */
+    Map<String, Integer> proximos(String palavra, int maxDistancia) {
+        Map<String, Integer> resultado = new HashMap<>();
+        int[] primeiraLinha = new int[palavra.length() + 1];
+        for (int i = 0; i < primeiraLinha.length; i++) {
+            primeiraLinha[i] = i;
+        }
+        for (Map.Entry<Character, No> filho : raiz.filhos.entrySet()) {
+            buscarProximos(filho.getValue(), filho.getKey(), palavra, primeiraLinha, maxDistancia, resultado);
+        }
+        return resultado;
+    }
+
+    private void buscarProximos(No no, char letra, String palavra, int[] linhaAnterior,
+                                int maxDistancia, Map<String, Integer> resultado) {
+        int colunas = palavra.length() + 1;
+        int[] linha = new int[colunas];
+        linha[0] = linhaAnterior[0] + 1;
+
+        int menor = linha[0];
+        for (int i = 1; i < colunas; i++) {
+            int insercao = linha[i - 1] + 1;
+            int remocao = linhaAnterior[i] + 1;
+            int troca = linhaAnterior[i - 1] + (palavra.charAt(i - 1) == letra ? 0 : 1);
+            linha[i] = Math.min(insercao, Math.min(remocao, troca));
+            menor = Math.min(menor, linha[i]);
+        }
+
+        if (no.termo != null && linha[colunas - 1] <= maxDistancia) {
+            resultado.put(no.termo, linha[colunas - 1]);
+        }
+        if (menor <= maxDistancia) {
+            for (Map.Entry<Character, No> filho : no.filhos.entrySet()) {
+                buscarProximos(filho.getValue(), filho.getKey(), palavra, linha, maxDistancia, resultado);
+            }
+        }
+    }
+}
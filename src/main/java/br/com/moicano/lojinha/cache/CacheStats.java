@@ -0,0 +1,18 @@
+package br.com.moicano.lojinha.cache;
+
+/**
+ * Fotografia (imutável) das métricas de um TtlLruCache.
+ */
+public record CacheStats(int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cache[itens=%d/%d, acertos=%d, falhas=%d, taxa=%.1f%%, removidos=%d, expirados=%d]",
+                size, maxSize, hits, misses, hitRate() * 100, evictions, expirations);
+    }
+}
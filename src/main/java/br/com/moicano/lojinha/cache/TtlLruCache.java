@@ -0,0 +1,180 @@
+package br.com.moicano.lojinha.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache em memória com limite de tamanho (LRU) e tempo de vida (TTL) por entrada.
+ *
+ * Thread-safe. Valores nulos não são guardados (um "não encontrado" sempre
+ * volta a consultar a origem).
+ */
+public class TtlLruCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> map;
+    // Lock explícito (e não synchronized) porque os chamadores podem ser virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Incrementada a cada invalidação: um load que começou antes dela não pode gravar
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public TtlLruCache(int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Tamanho máximo do cache deve ser positivo");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        // accessOrder = true: a entrada mais antiga do iterador é a menos usada
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = map.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired()) {
+                map.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Consulta sem contar acerto/falha nas métricas
+    public V peek(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = map.get(key);
+            return entry != null && !entry.isExpired() ? entry.value : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read-through: devolve o valor do cache ou carrega da origem e guarda.
+     * O carregamento roda fora do lock, então consultas lentas não travam o cache.
+     */
+    public V getOrLoad(K key, Function<K, V> loader) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        V value = loader.apply(key);
+        if (value != null) {
+            lock.lock();
+            try {
+                if (loadGeneration == generation) {
+                    map.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            map.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            generation++;
+            map.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        lock.lock();
+        try {
+            generation++;
+            Iterator<K> it = map.keySet().iterator();
+            while (it.hasNext()) {
+                if (predicate.test(it.next())) {
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            map.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(size(), maxSize, hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
@@ -72,7 +72,8 @@ public class CategoriaController {
                 return;
             }
 
-            Categoria categoriaAtualizada = view.lerAtualizacaoCategoria(categoria);
+            // A categoria do DAO é compartilhada e somente leitura: a tela edita uma cópia
+            Categoria categoriaAtualizada = view.lerAtualizacaoCategoria(new Categoria(categoria));
             categoriaDAO.atualizar(categoriaAtualizada);
             view.exibirMensagemSucesso("Categoria atualizada com sucesso!");
         } catch (Exception e) {
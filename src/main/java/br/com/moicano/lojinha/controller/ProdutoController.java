@@ -1,6 +1,7 @@
 package br.com.moicano.lojinha.controller;
 
 import br.com.moicano.lojinha.dao.CategoriaDAO;
+import br.com.moicano.lojinha.dao.Pagina;
 import br.com.moicano.lojinha.dao.ProdutoDAO;
 import br.com.moicano.lojinha.model.Categoria;
 import br.com.moicano.lojinha.model.Produto;
@@ -51,8 +52,13 @@ public class ProdutoController {
 
     private void listarProdutos() {
         try {
-            List<Produto> produtos = produtoDAO.buscarTodos();
-            view.exibirListaProdutos(produtos);
+            // Lista página por página em vez de carregar o catálogo inteiro
+            String cursor = null;
+            do {
+                Pagina<Produto> pagina = produtoDAO.buscarPagina(cursor, Pagina.TAMANHO_PADRAO);
+                view.exibirListaProdutos(pagina.getItens());
+                cursor = pagina.getProximoCursor();
+            } while (cursor != null && view.desejaProximaPagina());
         } catch (Exception e) {
             view.exibirErro(e.getMessage());
         }
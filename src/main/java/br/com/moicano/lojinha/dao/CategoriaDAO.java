@@ -5,10 +5,30 @@ import br.com.moicano.lojinha.model.Categoria;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * DAO de categorias.
+ *
+ * A tabela de categorias é pequena e quase não muda, então as leituras são
+ * servidas de um "snapshot" em memória (array indexado pelo ID + lista ordenada).
+ * O snapshot nunca é alterado: cada escrita (criar/atualizar/deletar) recarrega
+ * a tabela e troca a referência de uma vez só, então quem está lendo sempre vê
+ * uma versão completa e as leituras nunca tocam no JDBC.
+ *
+ * As categorias do snapshot também são somente leitura (os setters lançam
+ * UnsupportedOperationException) e são entregues sem cópia por buscarTodas e
+ * buscarPorId. Para editar, copie com new Categoria(categoria).
+ */
 public class CategoriaDAO {
 
+    private static volatile Snapshot snapshot;
+    // Quem recarrega o snapshot faz JDBC segurando o lock: ReentrantLock não prende
+    // a thread portadora de uma virtual thread, ao contrário de synchronized
+    private static final ReentrantLock lockEscrita = new ReentrantLock();
+
     public void criar(Categoria categoria) {
         String sql = "INSERT INTO categorias (nome, descricao) VALUES (?, ?)";
 
@@ -23,53 +43,25 @@ public class CategoriaDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao cadastrar categoria: " + e.getMessage(), e);
         }
+
+        recarregar();
     }
 
+    /**
+     * Lista todas as categorias, ordenadas por ID.
+     * A lista e as categorias são compartilhadas e somente leitura.
+     */
     public List<Categoria> buscarTodas() {
-        List<Categoria> categorias = new ArrayList<>();
-        String sql = "SELECT * FROM categorias ORDER BY id";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Categoria categoria = new Categoria();
-                categoria.setId(rs.getInt("id"));
-                categoria.setNome(rs.getString("nome"));
-                categoria.setDescricao(rs.getString("descricao"));
-                categorias.add(categoria);
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Erro ao listar categorias: " + e.getMessage(), e);
-        }
-
-        return categorias;
+        return obterSnapshot().todas;
     }
 
+    // Categoria compartilhada e somente leitura (ver buscarTodas), ou null
     public Categoria buscarPorId(int id) {
-        String sql = "SELECT * FROM categorias WHERE id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                Categoria categoria = new Categoria();
-                categoria.setId(rs.getInt("id"));
-                categoria.setNome(rs.getString("nome"));
-                categoria.setDescricao(rs.getString("descricao"));
-                return categoria;
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Erro ao buscar categoria: " + e.getMessage(), e);
+        Categoria[] porId = obterSnapshot().porId;
+        if (id < 0 || id >= porId.length) {
+            return null;
         }
-
-        return null;
+        return porId[id];
     }
 
     public void atualizar(Categoria categoria) {
@@ -90,11 +82,15 @@ public class CategoriaDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar categoria: " + e.getMessage(), e);
         }
+
+        recarregar();
+        // O nome da categoria aparece nos produtos em cache (JOIN), então eles saem do cache
+        ProdutoDAO.limparCache();
     }
 
     public void deletar(int id) {
         // CUIDADO: Se houver produtos ligados a esta categoria, isso pode dar erro de constraint.
-        // Mas como usamos DROP TABLE no inicio, para testes está ok.
+        // Nesse caso o banco recusa e a mensagem abaixo avisa o usuário.
         String sql = "DELETE FROM categorias WHERE id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -110,5 +106,99 @@ public class CategoriaDAO {
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao remover categoria (pode estar em uso): " + e.getMessage(), e);
         }
+
+        recarregar();
+        ProdutoDAO.limparCache();
+    }
+
+    // Carrega o snapshot na primeira leitura
+    private static Snapshot obterSnapshot() {
+        Snapshot atual = snapshot;
+        if (atual == null) {
+            lockEscrita.lock();
+            try {
+                atual = snapshot;
+                if (atual == null) {
+                    atual = carregarSnapshot();
+                    snapshot = atual;
+                }
+            } finally {
+                lockEscrita.unlock();
+            }
+        }
+        return atual;
+    }
+
+    // Depois de uma escrita: relê a tabela e publica o snapshot novo.
+    // O lock garante que duas escritas seguidas não publiquem fora de ordem.
+    private static void recarregar() {
+        lockEscrita.lock();
+        try {
+            snapshot = carregarSnapshot();
+        } finally {
+            lockEscrita.unlock();
+        }
+    }
+
+    private static Snapshot carregarSnapshot() {
+        List<Categoria> categorias = new ArrayList<>();
+        String sql = "SELECT * FROM categorias ORDER BY id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            RowMapper<Categoria> mapper = RowMappers.para(sql, Categoria.class, rs);
+            while (rs.next()) {
+                categorias.add(new SomenteLeitura(mapper.mapRow(rs)));
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar categorias: " + e.getMessage(), e);
+        }
+
+        return new Snapshot(categorias);
+    }
+
+    // Cópia feita uma vez por recarga do snapshot; ninguém consegue alterá-la depois
+    private static final class SomenteLeitura extends Categoria {
+        private SomenteLeitura(Categoria categoria) {
+            super(categoria);
+        }
+
+        @Override
+        public void setId(Integer id) {
+            throw recusar();
+        }
+
+        @Override
+        public void setNome(String nome) {
+            throw recusar();
+        }
+
+        @Override
+        public void setDescricao(String descricao) {
+            throw recusar();
+        }
+
+        private static UnsupportedOperationException recusar() {
+            return new UnsupportedOperationException(
+                    "Categoria do cache é somente leitura; edite uma cópia (new Categoria(categoria)).");
+        }
+    }
+
+    private static final class Snapshot {
+        private final Categoria[] porId;
+        private final List<Categoria> todas;
+
+        private Snapshot(List<Categoria> categorias) {
+            // Ordenado por ID: o último tem o maior ID e define o tamanho do array
+            int maiorId = categorias.isEmpty() ? 0 : categorias.get(categorias.size() - 1).getId();
+            this.porId = new Categoria[maiorId + 1];
+            for (Categoria categoria : categorias) {
+                porId[categoria.getId()] = categoria;
+            }
+            this.todas = Collections.unmodifiableList(categorias);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package br.com.moicano.lojinha.dao;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Posição de cada coluna de um resultado, lida uma vez do ResultSetMetaData.
+ *
+ * Os mapeadores resolvem os nomes aqui ao serem montados e, linha a linha,
+ * leem só por índice (rs.getInt(1)), sem procurar a coluna pelo nome.
+ */
+final class Colunas {
+    private final Map<String, Integer> indices;
+
+    Colunas(ResultSetMetaData metaData) throws SQLException {
+        int total = metaData.getColumnCount();
+        this.indices = new HashMap<>(total * 2);
+        for (int i = 1; i <= total; i++) {
+            // Com nomes repetidos vale a primeira ocorrência, como no rs.findColumn
+            indices.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    int indice(String nome) throws SQLException {
+        Integer indice = indices.get(nome);
+        if (indice == null) {
+            throw new SQLException("Coluna não encontrada no resultado: " + nome);
+        }
+        return indice;
+    }
+
+    // Para colunas que só algumas consultas trazem (ex: nome da categoria via JOIN); 0 = ausente
+    int indiceOpcional(String nome) {
+        return indices.getOrDefault(nome, 0);
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.moicano.lojinha.dao;
+
+/**
+ * A linha mudou no banco depois que foi lida (a versão não confere mais).
+ *
+ * Quem recebe esta exceção deve reler o registro e decidir de novo: repetir a
+ * operação às cegas sobrescreveria a alteração feita pelo outro usuário.
+ */
+public class ConflitoConcorrenciaException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String tabela;
+    private final int id;
+
+    public ConflitoConcorrenciaException(String tabela, int id, int versaoEsperada) {
+        super("O registro " + id + " de " + tabela + " foi alterado por outra pessoa (versão "
+                + versaoEsperada + " já não é a atual). Consulte de novo e repita a operação.");
+        this.tabela = tabela;
+        this.id = id;
+    }
+
+    public String getTabela() { return tabela; }
+
+    public int getId() { return id; }
+}
@@ -49,18 +49,9 @@ public class FavoritoDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            RowMapper<Produto> mapper = RowMappers.para(sql, Produto.class, rs);
             while (rs.next()) {
-                Produto produto = new Produto();
-                produto.setId(rs.getInt("id"));
-                produto.setNome(rs.getString("nome"));
-                produto.setDescricao(rs.getString("descricao"));
-                produto.setPreco(rs.getDouble("preco"));
-                produto.setQuantidade(rs.getInt("quantidade"));
-                produto.setCategoriaId(rs.getInt("categoria_id"));
-                produto.setCategoriaNome(rs.getString("categoria_nome"));
-                produto.setDosagem(rs.getString("dosagem"));
-                produto.setRequerReceita(rs.getBoolean("requer_receita"));
-                favoritos.add(produto);
+                favoritos.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao listar favoritos: " + e.getMessage(), e);
@@ -9,6 +9,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 // Classe DAO (Data Access Object) para a entidade ItemPedido.
 // Esta classe gerencia a persistência dos dados da tabela 'itens_pedido',
@@ -23,7 +24,7 @@ public class ItemPedidoDAO {
     public void criar(ItemPedido item) {
         // Define a instrução SQL de inserção com parâmetros (?) para
         // os IDs do pedido e produto, a quantidade e o preço no momento da compra.
-        String sql = "INSERT INTO itens_pedido (pedido_id, produto_id, quantidade, preco_unitario) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO itens_pedido (pedido_id, produto_id, quantidade, preco_unitario_centavos) VALUES (?, ?, ?, ?)";
 
         // Usa try-with-resources para garantir o fechamento automático da conexão e do statement.
         try (Connection conn = DatabaseConnection.getConnection();
@@ -33,7 +34,7 @@ public class ItemPedidoDAO {
             stmt.setInt(1, item.getPedidoId());
             stmt.setInt(2, item.getProdutoId());
             stmt.setInt(3, item.getQuantidade());
-            stmt.setDouble(4, item.getPrecoUnitario());
+            stmt.setLong(4, item.getPrecoUnitarioCentavos());
 
             // Executa a inserção no banco de dados.
             stmt.executeUpdate();
@@ -44,13 +45,39 @@ public class ItemPedidoDAO {
         }
     }
 
+    /**
+     * Salva vários itens de uma vez (um único round trip com addBatch/executeBatch).
+     * Usa a conexão de quem chama, para participar da mesma transação do pedido.
+     */
+    public void criarEmLote(Connection conn, List<ItemPedido> itens) throws SQLException {
+        String sql = "INSERT INTO itens_pedido (pedido_id, produto_id, quantidade, preco_unitario_centavos) VALUES (?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (ItemPedido item : itens) {
+                stmt.setInt(1, item.getPedidoId());
+                stmt.setInt(2, item.getProdutoId());
+                stmt.setInt(3, item.getQuantidade());
+                stmt.setLong(4, item.getPrecoUnitarioCentavos());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
     /**
      * Método READ (Ler por ID do Pedido).
      * Busca todos os itens (produtos, quantidades, etc.) que pertencem
      * a um pedido específico, identificado pelo pedidoId.
      * Também busca o nome do produto para facilitar a exibição.
+     * Se o pedido já foi arquivado (ArquivadorPedidos), os itens vêm do arquivo.
      */
     public List<ItemPedido> buscarPorPedidoId(Integer pedidoId) {
+        List<ItemPedido> itens = buscarPorPedidoId(pedidoId, "itens_pedido");
+        // Todo pedido tem itens: nenhum na tabela quente quer dizer pedido arquivado (ou inexistente)
+        return itens.isEmpty() ? buscarPorPedidoId(pedidoId, "itens_pedido_arquivo") : itens;
+    }
+
+    private List<ItemPedido> buscarPorPedidoId(Integer pedidoId, String tabela) {
         // Inicializa a lista que conterá os itens do pedido.
         List<ItemPedido> itens = new ArrayList<>();
 
@@ -64,10 +91,10 @@ public class ItemPedidoDAO {
         //    itens que pertencem ao ID do pedido fornecido.
         String sql = """
                 SELECT ip.*, p.nome as produto_nome 
-                FROM itens_pedido ip 
+                FROM %s ip 
                 JOIN produtos p ON ip.produto_id = p.id 
                 WHERE ip.pedido_id = ?
-                """;
+                """.formatted(tabela);
 
         // Usa try-with-resources para a conexão e o PreparedStatement.
         try (Connection conn = DatabaseConnection.getConnection();
@@ -78,22 +105,13 @@ public class ItemPedidoDAO {
 
             // Executa a consulta e armazena os resultados no ResultSet.
             try (ResultSet rs = stmt.executeQuery()) {
+                // Mapeador com os índices das colunas já resolvidos (ver RowMappers).
+                RowMapper<ItemPedido> mapper = RowMappers.para(sql, ItemPedido.class, rs);
 
                 // Itera sobre cada linha (item) retornada pela consulta.
                 while (rs.next()) {
-                    // Cria um novo objeto ItemPedido.
-                    ItemPedido item = new ItemPedido();
-
-                    // Popula o objeto com os dados da tabela 'itens_pedido'.
-                    item.setId(rs.getInt("id"));
-                    item.setPedidoId(rs.getInt("pedido_id"));
-                    item.setProdutoId(rs.getInt("produto_id"));
-                    item.setQuantidade(rs.getInt("quantidade"));
-                    item.setPrecoUnitario(rs.getDouble("preco_unitario"));
-
-                    // Popula o campo extra (produtoNome) obtido através do JOIN.
-                    // Este campo não existe na tabela 'itens_pedido', só no objeto Java.
-                    item.setProdutoNome(rs.getString("produto_nome"));
+                    // Converte a linha atual em um ItemPedido.
+                    ItemPedido item = mapper.mapRow(rs);
 
                     // Adiciona o item populado à lista.
                     itens.add(item);
@@ -106,4 +124,27 @@ public class ItemPedidoDAO {
         // Retorna a lista de itens encontrados (pode estar vazia se o pedido não tiver itens).
         return itens;
     }
-}
\ No newline at end of file
+
+    /**
+     * Todos os itens de pedido (com o nome do produto), lidos sob demanda para
+     * exportações e relatórios: primeiro os arquivados, depois os da tabela
+     * quente, na mesma ordem de PedidoDAO.streamTodos().
+     * Como lá, a tabela quente só é aberta depois que o arquivo foi lido e fechado.
+     * O Stream segura uma conexão: feche-o com try-with-resources.
+     */
+    public Stream<ItemPedido> streamTodos() {
+        return Stream.of("itens_pedido_arquivo", "itens_pedido").flatMap(this::streamTodos);
+    }
+
+    private Stream<ItemPedido> streamTodos(String tabela) {
+        // LEFT JOIN fixa itens_pedido como a tabela de fora: as linhas saem na ordem do
+        // índice de pedido_id, sem ordenar tudo antes (com JOIN o H2 começava por produtos)
+        String sql = """
+                SELECT ip.*, p.nome as produto_nome 
+                FROM %s ip 
+                LEFT JOIN produtos p ON ip.produto_id = p.id 
+                ORDER BY ip.pedido_id
+                """.formatted(tabela);
+        return JdbcStream.of(sql, ItemPedido.class);
+    }
+}
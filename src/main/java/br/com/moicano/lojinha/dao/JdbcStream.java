@@ -0,0 +1,138 @@
+package br.com.moicano.lojinha.dao;
+
+import br.com.moicano.lojinha.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Leitura em streaming para varreduras grandes (exportações, relatórios).
+ *
+ * Diferente dos métodos que devolvem List, aqui o ResultSet fica aberto e cada
+ * linha só é convertida quando o Stream pede a próxima, então a memória usada
+ * não depende do tamanho da tabela. A conexão fica presa ao Stream até ele ser
+ * fechado (ou até a última linha ser lida), por isso use sempre try-with-resources:
+ *
+ * <pre>
+ * try (Stream&lt;Pedido&gt; pedidos = pedidoDAO.streamTodos()) {
+ *     pedidos.forEach(...);
+ * }
+ * </pre>
+ */
+final class JdbcStream {
+    // Dica para o driver buscar as linhas em blocos (relevante em modo servidor)
+    static final int FETCH_SIZE = 1_000;
+
+    private JdbcStream() {}
+
+    @FunctionalInterface
+    interface ParameterSetter {
+        void setParameters(PreparedStatement stmt) throws SQLException;
+    }
+
+    static <T> Stream<T> of(String sql, Class<T> tipo) {
+        return of(sql, stmt -> {}, tipo);
+    }
+
+    static <T> Stream<T> of(String sql, ParameterSetter parametros, Class<T> tipo) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            // No H2 embarcado, sem execução "lazy" o resultado inteiro é montado antes
+            // da primeira linha; com ela as linhas são produzidas conforme são lidas
+            setLazy(conn, true);
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(FETCH_SIZE);
+            parametros.setParameters(stmt);
+            ResultSet rs = stmt.executeQuery();
+            RowMapper<T> mapper = RowMappers.para(sql, tipo, rs);
+
+            Cursor<T> cursor = new Cursor<>(conn, stmt, rs, mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(conn, stmt, null);
+            throw new RuntimeException("Erro ao abrir consulta em streaming: " + e.getMessage(), e);
+        }
+    }
+
+    private static void setLazy(Connection conn, boolean lazy) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? "TRUE" : "FALSE"));
+        }
+    }
+
+    private static void closeQuietly(Connection conn, Statement stmt, ResultSet rs) {
+        // Cada passo num finally: uma falha ao fechar o ResultSet não pode impedir
+        // que a conexão volte ao pool
+        try {
+            try {
+                if (rs != null) rs.close();
+            } finally {
+                try {
+                    if (stmt != null) stmt.close();
+                } finally {
+                    if (conn != null) {
+                        try {
+                            setLazy(conn, false);
+                        } finally {
+                            conn.close();
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("ERRO: Erro ao fechar consulta em streaming: " + e.getMessage());
+        }
+    }
+
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        private boolean closed;
+
+        private Cursor(Connection conn, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    // Chegou ao fim: já devolve a conexão, mesmo que ninguém feche o Stream
+                    close();
+                    return false;
+                }
+                action.accept(mapper.mapRow(rs));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException("Erro ao ler consulta em streaming: " + e.getMessage(), e);
+            }
+        }
+
+        private void close() {
+            if (!closed) {
+                closed = true;
+                closeQuietly(conn, stmt, rs);
+            }
+        }
+    }
+}
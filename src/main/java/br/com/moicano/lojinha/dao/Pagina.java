@@ -0,0 +1,63 @@
+package br.com.moicano.lojinha.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Uma página de resultados da paginação por chave (keyset).
+ *
+ * Em vez de OFFSET (que obriga o banco a ler e descartar as linhas anteriores),
+ * cada página guarda a chave da última linha lida em um cursor opaco; a próxima
+ * consulta começa exatamente dali. Custo e memória por página não dependem do
+ * tamanho da tabela.
+ */
+public class Pagina<T> {
+    public static final int TAMANHO_PADRAO = Integer.getInteger("lojinha.paginacao.tamanho", 20);
+    public static final int TAMANHO_MAXIMO = 500;
+
+    private final List<T> itens;
+    private final String proximoCursor;
+
+    public Pagina(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<T> getItens() { return itens; }
+
+    // Passe este valor para a próxima chamada; null quando esta é a última página
+    public String getProximoCursor() { return proximoCursor; }
+
+    public boolean temProxima() { return proximoCursor != null; }
+
+    public boolean isVazia() { return itens.isEmpty(); }
+
+    // --- Helpers usados pelos DAOs ---
+
+    static int validarTamanho(int tamanho) {
+        if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO) {
+            throw new IllegalArgumentException("Tamanho de página inválido: " + tamanho + " (1 a " + TAMANHO_MAXIMO + ")");
+        }
+        return tamanho;
+    }
+
+    // O cursor é só a chave da última linha, em Base64 para o cliente não depender do formato
+    static String codificarCursor(String... partes) {
+        String chave = String.join("|", partes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodificarCursor(String cursor, int partesEsperadas) {
+        try {
+            String chave = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = chave.split("\\|", -1);
+            if (partes.length != partesEsperadas) {
+                throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor);
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor, e);
+        }
+    }
+}
@@ -2,21 +2,53 @@ package br.com.moicano.lojinha.dao;
 
 import br.com.moicano.lojinha.database.DatabaseConnection;
 import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.StatusPedido;
 
 import java.sql.*;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Os pedidos ficam em duas tabelas: pedidos (quente: os ativos e os entregues
+ * recentemente) e pedidos_arquivo (fria: os entregues antigos, movidos pelo
+ * ArquivadorPedidos). A operação do dia (pedidos ativos, mudanças de status)
+ * lê só a quente; o arquivo só é consultado quando se pede o histórico
+ * (buscarTodos, buscarPagina, streamTodos) ou um pedido que não está mais na quente.
+ */
 public class PedidoDAO {
+    private static final List<PedidoListener> listeners = new CopyOnWriteArrayList<>();
+    // Mesmas colunas, na mesma ordem, nas duas tabelas (UNION ALL e INSERT ... SELECT do arquivo)
+    private static final String COLUNAS = "id, data, valor_total_centavos, cliente_nome, status, versao, chave_idempotencia";
+    // Status que ainda precisam de entregador (AGUARDANDO, EM ROTA), na ordem do enum
+    private static final List<StatusPedido> STATUS_ATIVOS =
+            Arrays.stream(StatusPedido.values()).filter(StatusPedido::isAtivo).toList();
 
     public Integer criar(Pedido pedido) {
-        String sql = "INSERT INTO pedidos (data, valor_total, cliente_nome, status) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return criar(conn, pedido);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao criar pedido: " + e.getMessage(), e);
+        }
+    }
+
+    // Versão que usa a conexão (e a transação) de quem chama, ex: o CheckoutService
+    public Integer criar(Connection conn, Pedido pedido) throws SQLException {
+        String sql = "INSERT INTO pedidos (data, valor_total_centavos, cliente_nome, status, chave_idempotencia) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setTimestamp(1, Timestamp.valueOf(pedido.getData()));
-            stmt.setDouble(2, pedido.getValorTotal());
+            stmt.setLong(2, pedido.getValorTotalCentavos());
             stmt.setString(3, pedido.getClienteNome());
-            stmt.setString(4, pedido.getStatus());
+            stmt.setString(4, pedido.getStatus().getCodigoSql());
+            stmt.setString(5, pedido.getChaveIdempotencia());
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
                 try (ResultSet rs = stmt.getGeneratedKeys()) {
@@ -26,25 +58,67 @@ public class PedidoDAO {
                 }
             }
             return null;
+        }
+    }
+
+    /**
+     * Insere vários pedidos com um único executeBatch (ex: o GravadorPedidos) e
+     * devolve o ID gerado em cada objeto, na mesma ordem da lista.
+     */
+    public void criarEmLote(Connection conn, List<Pedido> pedidos) throws SQLException {
+        String sql = "INSERT INTO pedidos (data, valor_total_centavos, cliente_nome, status, chave_idempotencia) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Pedido pedido : pedidos) {
+                stmt.setTimestamp(1, Timestamp.valueOf(pedido.getData()));
+                stmt.setLong(2, pedido.getValorTotalCentavos());
+                stmt.setString(3, pedido.getClienteNome());
+                stmt.setString(4, pedido.getStatus().getCodigoSql());
+                stmt.setString(5, pedido.getChaveIdempotencia());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            int i = 0;
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                while (rs.next() && i < pedidos.size()) {
+                    pedidos.get(i++).setId(rs.getInt(1));
+                }
+            }
+            if (i != pedidos.size()) {
+                throw new SQLException("Esperava " + pedidos.size() + " IDs gerados, vieram " + i);
+            }
+        }
+    }
+
+    // ID do pedido gravado com a chave de idempotência, ou null se ainda não existe
+    public Integer buscarIdPorChave(String chaveIdempotencia) {
+        // As duas buscas pelo índice único num só round trip: a maioria das chaves é nova
+        // e não estaria em nenhuma das tabelas, então procurar uma e depois a outra custaria o dobro
+        String sql = "SELECT id FROM pedidos WHERE chave_idempotencia = ? "
+                + "UNION ALL SELECT id FROM pedidos_arquivo WHERE chave_idempotencia = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, chaveIdempotencia);
+            stmt.setString(2, chaveIdempotencia);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao criar pedido: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao buscar pedido por chave: " + e.getMessage(), e);
         }
     }
 
+    // Histórico completo (quente + arquivo), do mais recente para o mais antigo
     public List<Pedido> buscarTodos() {
         List<Pedido> pedidos = new ArrayList<>();
-        String sql = "SELECT * FROM pedidos ORDER BY data DESC";
+        String sql = "SELECT " + COLUNAS + " FROM pedidos UNION ALL SELECT " + COLUNAS + " FROM pedidos_arquivo "
+                + "ORDER BY data DESC, id DESC";
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
+            RowMapper<Pedido> mapper = RowMappers.para(sql, Pedido.class, rs);
             while (rs.next()) {
-                Pedido pedido = new Pedido();
-                pedido.setId(rs.getInt("id"));
-                pedido.setData(rs.getTimestamp("data").toLocalDateTime());
-                pedido.setValorTotal(rs.getDouble("valor_total"));
-                pedido.setClienteNome(rs.getString("cliente_nome"));
-                pedido.setStatus(rs.getString("status"));
-                pedidos.add(pedido);
+                pedidos.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao listar pedidos: " + e.getMessage(), e);
@@ -52,23 +126,122 @@ public class PedidoDAO {
         return pedidos;
     }
 
-    // --- CORREÇÃO AQUI ---
+    /**
+     * Histórico de pedidos, do mais recente para o mais antigo, página por página.
+     * A chave da paginação é (data, id): o id desempata pedidos com a mesma data.
+     * Cada tabela (quente e arquivo) devolve no máximo uma página pelo seu índice
+     * (data DESC, id DESC) e só essas linhas são juntadas e ordenadas.
+     * Pedidos sem data (só em dados antigos: inserir() sempre grava a data) vêm
+     * depois de todos os outros; o cursor deles leva a data vazia.
+     * @param cursor null para a primeira página, ou o getProximoCursor() da página anterior.
+     * @throws IllegalArgumentException se o cursor não for um devolvido por esta consulta.
+     */
+    public Pagina<Pedido> buscarPagina(String cursor, int tamanho) {
+        Pagina.validarTamanho(tamanho);
+        Timestamp dataCursor = null;
+        int idCursor = 0;
+        if (cursor != null) {
+            String[] chave = Pagina.decodificarCursor(cursor, 2);
+            try {
+                dataCursor = chave[0].isEmpty() ? null : Timestamp.valueOf(LocalDateTime.parse(chave[0]));
+                idCursor = Integer.parseInt(chave[1]);
+            } catch (DateTimeException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor, e);
+            }
+        }
+
+        // (data, id) < (?, ?) nunca é verdadeiro para data NULL: depois de um cursor com
+        // data, os pedidos sem data entram por uma consulta à parte (também pelo índice)
+        List<String> filtros = new ArrayList<>();
+        if (cursor == null) {
+            filtros.add("");
+        } else if (dataCursor != null) {
+            filtros.add("WHERE (data, id) < (?, ?) ");
+            filtros.add("WHERE data IS NULL ");
+        } else {
+            filtros.add("WHERE data IS NULL AND id < ? ");
+        }
+        // O LIMIT de cada parte vai no texto do SQL: no H2 2.2, um LIMIT ? dentro do UNION
+        // fica preso ao valor das primeiras execuções do mesmo PreparedStatement (o
+        // resultado da parte é reaproveitado) e páginas maiores vinham cortadas.
+        // Uma linha a mais só para saber se existe próxima página
+        int limite = tamanho + 1;
+        List<String> partes = new ArrayList<>();
+        for (String tabela : new String[] {"pedidos", "pedidos_arquivo"}) {
+            for (String filtro : filtros) {
+                partes.add("(SELECT " + COLUNAS + " FROM " + tabela + " " + filtro
+                        + "ORDER BY data DESC, id DESC LIMIT " + limite + ")");
+            }
+        }
+        String sql = String.join(" UNION ALL ", partes) + " ORDER BY data DESC, id DESC LIMIT ?";
+
+        List<Pedido> pedidos = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (int tabela = 0; tabela < 2; tabela++) {
+                if (dataCursor != null) {
+                    stmt.setTimestamp(i++, dataCursor);
+                    stmt.setInt(i++, idCursor);
+                } else if (cursor != null) {
+                    stmt.setInt(i++, idCursor);
+                }
+            }
+            stmt.setInt(i, limite);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Pedido> mapper = RowMappers.para(sql, Pedido.class, rs);
+                while (rs.next()) {
+                    pedidos.add(mapper.mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar pedidos: " + e.getMessage(), e);
+        }
+
+        String proximoCursor = null;
+        if (pedidos.size() > tamanho) {
+            pedidos.remove(tamanho);
+            Pedido ultimo = pedidos.get(tamanho - 1);
+            String data = ultimo.getData() != null ? ultimo.getData().toString() : "";
+            proximoCursor = Pagina.codificarCursor(data, String.valueOf(ultimo.getId()));
+        }
+        return new Pagina<>(pedidos, proximoCursor);
+    }
+
+    /**
+     * Todos os pedidos, lidos sob demanda (para exportações e relatórios):
+     * primeiro os arquivados, depois os da tabela quente, cada parte em ordem de ID.
+     * Cada parte sai direto da chave primária; um ORDER BY sobre o UNION faria o
+     * banco juntar e ordenar todas as linhas antes de entregar a primeira.
+     * A segunda parte só é aberta quando a primeira termina (e a primeira é fechada
+     * antes disso), então o Stream usa uma conexão por vez, nunca duas.
+     * O Stream segura uma conexão: feche-o com try-with-resources.
+     */
+    public Stream<Pedido> streamTodos() {
+        return Stream.<Supplier<Stream<Pedido>>>of(
+                () -> JdbcStream.of("SELECT " + COLUNAS + " FROM pedidos_arquivo ORDER BY id", Pedido.class),
+                () -> JdbcStream.of("SELECT " + COLUNAS + " FROM pedidos ORDER BY id", Pedido.class))
+                .flatMap(Supplier::get);
+    }
+
     public List<Pedido> buscarPedidosAtivos() {
         List<Pedido> pedidos = new ArrayList<>();
-        // MUDANÇA: Trocámos "IS NOT" por "<>" (diferente)
-        String sql = "SELECT * FROM pedidos WHERE status <> 'ENTREGUE' ORDER BY data ASC";
+        // Lista os status ativos em vez de "status <> ?": com IN o banco usa o índice
+        // (status, data) e lê só os pedidos ativos, não a tabela toda
+        String sql = "SELECT * FROM pedidos WHERE status IN (" + "?, ".repeat(STATUS_ATIVOS.size() - 1) + "?) ORDER BY data ASC";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                Pedido pedido = new Pedido();
-                pedido.setId(rs.getInt("id"));
-                pedido.setData(rs.getTimestamp("data").toLocalDateTime());
-                pedido.setValorTotal(rs.getDouble("valor_total"));
-                pedido.setClienteNome(rs.getString("cliente_nome"));
-                pedido.setStatus(rs.getString("status"));
-                pedidos.add(pedido);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (StatusPedido status : STATUS_ATIVOS) {
+                stmt.setString(i++, status.getCodigoSql());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Pedido> mapper = RowMappers.para(sql, Pedido.class, rs);
+                while (rs.next()) {
+                    pedidos.add(mapper.mapRow(rs));
+                }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao listar pedidos ativos: " + e.getMessage(), e);
@@ -76,15 +249,157 @@ public class PedidoDAO {
         return pedidos;
     }
 
-    public void atualizarStatus(Integer pedidoId, String novoStatus) {
-        String sql = "UPDATE pedidos SET status = ? WHERE id = ?";
+    // Procura na tabela quente e, se não achar, no arquivo (pedido entregue há tempo)
+    public Pedido buscarPorId(int id) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Pedido pedido = buscarPorId(conn, "SELECT * FROM pedidos WHERE id = ?", id);
+            if (pedido == null) {
+                pedido = buscarPorId(conn, "SELECT " + COLUNAS + " FROM pedidos_arquivo WHERE id = ?", id);
+            }
+            return pedido;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar pedido: " + e.getMessage(), e);
+        }
+    }
+
+    private Pedido buscarPorId(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return RowMappers.para(sql, Pedido.class, rs).mapRow(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Move para o arquivo (pedidos_arquivo, itens_pedido_arquivo) até {@code limite}
+     * pedidos ENTREGUES antes de {@code entreguesAntes} (pela data da entrega, não a
+     * do pedido), dos entregues há mais tempo para os mais recentes, numa única
+     * transação: cópia dos pedidos e dos itens e remoção das tabelas quentes.
+     * Lotes pequenos seguram os locks por pouco tempo.
+     * @return quantos pedidos foram arquivados (0 quando não há mais o que arquivar).
+     */
+    public int arquivarEntregues(LocalDateTime entreguesAntes, int limite) {
+        String sqlIds = "SELECT id FROM pedidos WHERE status = ? AND entregue_em < ? ORDER BY entregue_em LIMIT ?";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>(limite);
+                try (PreparedStatement stmt = conn.prepareStatement(sqlIds)) {
+                    stmt.setString(1, StatusPedido.ENTREGUE.getCodigoSql());
+                    stmt.setTimestamp(2, Timestamp.valueOf(entreguesAntes));
+                    stmt.setInt(3, limite);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+
+                // "= ANY(?)" com um array: o mesmo SQL (e o mesmo statement em cache) para qualquer tamanho de lote
+                Array lote = conn.createArrayOf("INTEGER", ids.toArray());
+                executarComIds(conn, "INSERT INTO pedidos_arquivo (" + COLUNAS + ", entregue_em) SELECT " + COLUNAS
+                        + ", entregue_em FROM pedidos WHERE id = ANY(?)", lote);
+                executarComIds(conn, "INSERT INTO itens_pedido_arquivo (id, pedido_id, produto_id, quantidade, preco_unitario_centavos) "
+                        + "SELECT id, pedido_id, produto_id, quantidade, preco_unitario_centavos FROM itens_pedido WHERE pedido_id = ANY(?)", lote);
+                executarComIds(conn, "DELETE FROM itens_pedido WHERE pedido_id = ANY(?)", lote);
+                int arquivados = executarComIds(conn, "DELETE FROM pedidos WHERE id = ANY(?)", lote);
+                conn.commit();
+                return arquivados;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao arquivar pedidos: " + e.getMessage(), e);
+        }
+    }
+
+    private int executarComIds(Connection conn, String sql, Array ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, ids);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Passa o pedido para {@code novoStatus} sem lê-lo antes: o UPDATE só acontece
+     * se o status atual no banco é um dos que podem chegar ao novo
+     * (WHERE status IN (...)), e a linha alterada volta no mesmo comando (FINAL TABLE).
+     * Só quando nada é alterado o pedido é lido, para explicar o motivo.
+     * @return o pedido como ficou no banco.
+     * @throws NoSuchElementException se o pedido não existe.
+     * @throws IllegalStateException se o status atual não permite a transição.
+     */
+    public Pedido transicionar(int pedidoId, StatusPedido novoStatus) {
+        Set<StatusPedido> anteriores = novoStatus.anteriores();
+        if (anteriores.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum pedido pode voltar para " + novoStatus + ".");
+        }
+        // A hora da entrega é a que conta para o arquivamento (arquivarEntregues)
+        String entrega = novoStatus == StatusPedido.ENTREGUE ? ", entregue_em = LOCALTIMESTAMP" : "";
+        String sql = "SELECT * FROM FINAL TABLE (UPDATE pedidos SET status = ?, versao = versao + 1" + entrega
+                + " WHERE id = ? AND status IN (" + "?, ".repeat(anteriores.size() - 1) + "?))";
+
+        Pedido pedido = null;
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, novoStatus);
-            stmt.setInt(2, pedidoId);
-            stmt.executeUpdate();
+            int i = 1;
+            stmt.setString(i++, novoStatus.getCodigoSql());
+            stmt.setInt(i++, pedidoId);
+            for (StatusPedido anterior : anteriores) {
+                stmt.setString(i++, anterior.getCodigoSql());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    pedido = RowMappers.para(sql, Pedido.class, rs).mapRow(rs);
+                }
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar status do pedido: " + e.getMessage(), e);
         }
+
+        if (pedido == null) {
+            Pedido atual = buscarPorId(pedidoId);
+            if (atual == null) {
+                throw new NoSuchElementException("Pedido não encontrado: " + pedidoId);
+            }
+            atual.getStatus().validarTransicao(novoStatus);
+            // A transição era válida, mas o status mudou entre o UPDATE e a leitura
+            throw new IllegalStateException("O pedido " + pedidoId + " acabou de mudar de status, tente novamente.");
+        }
+        avisarSalvo(pedido);
+        return pedido;
+    }
+
+    public static void adicionarListener(PedidoListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removerListener(PedidoListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Avisa os listeners sobre pedidos criados dentro da transação de quem chama
+     * (criar(conn, ...) / criarEmLote): só deve ser chamado depois do commit.
+     */
+    public void avisarCriados(Collection<Pedido> pedidos) {
+        for (Pedido pedido : pedidos) {
+            avisarSalvo(pedido);
+        }
+    }
+
+    private void avisarSalvo(Pedido pedido) {
+        for (PedidoListener listener : listeners) {
+            listener.pedidoSalvo(new Pedido(pedido));
+        }
     }
-}
\ No newline at end of file
+}
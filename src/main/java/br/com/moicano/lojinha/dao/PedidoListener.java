@@ -0,0 +1,13 @@
+package br.com.moicano.lojinha.dao;
+
+import br.com.moicano.lojinha.model.Pedido;
+
+/**
+ * Recebe avisos do PedidoDAO depois que um pedido foi gravado ou mudou de
+ * status (ex: a fila de despacho dos entregadores).
+ */
+public interface PedidoListener {
+
+    // Chamado com o pedido como ficou no banco (já com ID, status e versão novos)
+    void pedidoSalvo(Pedido pedido);
+}
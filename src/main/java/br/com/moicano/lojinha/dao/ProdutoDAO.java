@@ -1,23 +1,44 @@
 package br.com.moicano.lojinha.dao;
 
+import br.com.moicano.lojinha.cache.CacheStats;
+import br.com.moicano.lojinha.cache.TtlLruCache;
 import br.com.moicano.lojinha.database.DatabaseConnection;
 import br.com.moicano.lojinha.model.Produto;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 public class ProdutoDAO {
 
+    // Caches compartilhados por todas as instâncias do DAO (cada tela cria a sua).
+    // Guardam linhas do catálogo, que mudam pouco; o estoque "de verdade" é sempre
+    // conferido no banco no checkout (baixarEstoque é um UPDATE condicional).
+    private static final TtlLruCache<Integer, Produto> cachePorId =
+            new TtlLruCache<>(1_000, 5, TimeUnit.MINUTES);
+    private static final TtlLruCache<String, List<Produto>> cacheListas =
+            new TtlLruCache<>(64, 5, TimeUnit.MINUTES);
+    private static final String CHAVE_TODOS = "todos";
+    private static final List<ProdutoListener> listeners = new CopyOnWriteArrayList<>();
+    private static final String PREFIXO_CATEGORIA = "categoria:";
+    private static final TtlLruCache<String, Pagina<Produto>> cachePaginas =
+            new TtlLruCache<>(64, 5, TimeUnit.MINUTES);
+
     public void criar(Produto produto) {
-        String sql = "INSERT INTO produtos (nome, descricao, preco, quantidade, categoria_id, dosagem, requer_receita) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO produtos (nome, descricao, preco_centavos, quantidade, categoria_id, dosagem, requer_receita) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, produto.getNome());
             stmt.setString(2, produto.getDescricao());
-            stmt.setDouble(3, produto.getPreco());
+            stmt.setLong(3, produto.getPrecoCentavos());
             stmt.setInt(4, produto.getQuantidade());
 
             // --- CORREÇÃO DE SEGURANÇA ---
@@ -33,12 +54,29 @@ public class ProdutoDAO {
 
             stmt.executeUpdate();
 
+            // Devolve o ID gerado no próprio objeto (os listeners precisam dele)
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    produto.setId(rs.getInt(1));
+                }
+            }
+
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao cadastrar produto: " + e.getMessage(), e);
         }
+
+        // Produto novo só muda as listagens (ainda não há entrada por ID)
+        cacheListas.invalidate(CHAVE_TODOS);
+        cacheListas.invalidate(chaveCategoria(produto.getCategoriaId()));
+        cachePaginas.clear();
+        avisarSalvo(produto);
     }
 
     public List<Produto> buscarTodos() {
+        return copiar(cacheListas.getOrLoad(CHAVE_TODOS, chave -> carregarTodos()));
+    }
+
+    private List<Produto> carregarTodos() {
         List<Produto> produtos = new ArrayList<>();
         String sql = """
                 SELECT p.*, c.nome as categoria_nome 
@@ -51,9 +89,9 @@ public class ProdutoDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            RowMapper<Produto> mapper = RowMappers.para(sql, Produto.class, rs);
             while (rs.next()) {
-                Produto produto = mapResultSetToProduto(rs);
-                produtos.add(produto);
+                produtos.add(mapper.mapRow(rs));
             }
 
         } catch (SQLException e) {
@@ -63,7 +101,103 @@ public class ProdutoDAO {
         return produtos;
     }
 
+    /**
+     * Lista o catálogo página por página (paginação por chave sobre o ID).
+     * @param cursor null para a primeira página, ou o getProximoCursor() da página anterior.
+     */
+    public Pagina<Produto> buscarPagina(String cursor, int tamanho) {
+        Pagina.validarTamanho(tamanho);
+        String chave = cursor + ":" + tamanho;
+        Pagina<Produto> pagina = cachePaginas.getOrLoad(chave, c -> carregarPagina(cursor, tamanho));
+        return new Pagina<>(copiar(pagina.getItens()), pagina.getProximoCursor());
+    }
+
+    private Pagina<Produto> carregarPagina(String cursor, int tamanho) {
+        int aposId = 0;
+        if (cursor != null) {
+            try {
+                aposId = Integer.parseInt(Pagina.decodificarCursor(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor, e);
+            }
+        }
+        List<Produto> produtos = new ArrayList<>();
+        String sql = """
+                SELECT p.*, c.nome as categoria_nome 
+                FROM produtos p 
+                LEFT JOIN categorias c ON p.categoria_id = c.id 
+                WHERE p.id > ? 
+                ORDER BY p.id 
+                LIMIT ?
+                """;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, aposId);
+            // Pede uma linha a mais só para saber se existe próxima página
+            stmt.setInt(2, tamanho + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Produto> mapper = RowMappers.para(sql, Produto.class, rs);
+                while (rs.next()) {
+                    produtos.add(mapper.mapRow(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar produtos: " + e.getMessage(), e);
+        }
+
+        String proximoCursor = null;
+        if (produtos.size() > tamanho) {
+            produtos.remove(tamanho);
+            proximoCursor = Pagina.codificarCursor(String.valueOf(produtos.get(tamanho - 1).getId()));
+        }
+        return new Pagina<>(produtos, proximoCursor);
+    }
+
+    /**
+     * Catálogo inteiro em ordem de ID, lido sob demanda e sem passar pelo cache.
+     * O Stream segura uma conexão: feche-o com try-with-resources.
+     */
+    public Stream<Produto> streamTodos() {
+        String sql = """
+                SELECT p.*, c.nome as categoria_nome 
+                FROM produtos p 
+                LEFT JOIN categorias c ON p.categoria_id = c.id 
+                ORDER BY p.id
+                """;
+        return JdbcStream.of(sql, Produto.class);
+    }
+
     public Produto buscarPorId(int id) {
+        Produto produto = cachePorId.getOrLoad(id, this::carregarPorId);
+        return produto != null ? new Produto(produto) : null;
+    }
+
+    /**
+     * Quantidade em estoque lida direto do banco, sem passar pelo cache (que pode
+     * ter até alguns minutos): para quem precisa do valor atual, como o livro de reservas.
+     * @return null se o produto não existe.
+     */
+    public Integer buscarEstoque(int id) {
+        String sql = "SELECT quantidade FROM produtos WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("quantidade") : null;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar estoque do produto: " + e.getMessage(), e);
+        }
+    }
+
+    private Produto carregarPorId(int id) {
         String sql = """
                 SELECT p.*, c.nome as categoria_nome 
                 FROM produtos p 
@@ -75,10 +209,10 @@ public class ProdutoDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return mapResultSetToProduto(rs);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return RowMappers.para(sql, Produto.class, rs).mapRow(rs);
+                }
             }
 
         } catch (SQLException e) {
@@ -89,13 +223,19 @@ public class ProdutoDAO {
     }
 
     public List<Produto> buscarPorCategoria(int categoriaId) {
+        return copiar(cacheListas.getOrLoad(chaveCategoria(categoriaId), chave -> carregarPorCategoria(categoriaId)));
+    }
+
+    private List<Produto> carregarPorCategoria(int categoriaId) {
         List<Produto> produtos = new ArrayList<>();
+        // Sem a dica o otimizador escolhe o índice da FK (só categoria_id) e ordena depois;
+        // (categoria_id, nome) já entrega as linhas na ordem do ORDER BY
         String sql = """
                 SELECT p.*, c.nome as categoria_nome 
-                FROM produtos p 
+                FROM produtos p USE INDEX (idx_produtos_categoria_nome) 
                 LEFT JOIN categorias c ON p.categoria_id = c.id 
                 WHERE p.categoria_id = ? 
-                ORDER BY p.nome
+                ORDER BY p.categoria_id, p.nome
                 """;
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -104,9 +244,9 @@ public class ProdutoDAO {
             stmt.setInt(1, categoriaId);
             ResultSet rs = stmt.executeQuery();
 
+            RowMapper<Produto> mapper = RowMappers.para(sql, Produto.class, rs);
             while (rs.next()) {
-                Produto produto = mapResultSetToProduto(rs);
-                produtos.add(produto);
+                produtos.add(mapper.mapRow(rs));
             }
 
         } catch (SQLException e) {
@@ -116,15 +256,20 @@ public class ProdutoDAO {
         return produtos;
     }
 
+    /**
+     * Grava as alterações do produto, desde que ninguém o tenha alterado depois
+     * que ele foi lido (a versão lida tem que ser a do banco).
+     * @throws ConflitoConcorrenciaException se o produto mudou nesse meio tempo.
+     */
     public void atualizar(Produto produto) {
-        String sql = "UPDATE produtos SET nome = ?, descricao = ?, preco = ?, quantidade = ?, categoria_id = ?, dosagem = ?, requer_receita = ? WHERE id = ?";
+        String sql = "UPDATE produtos SET nome = ?, descricao = ?, preco_centavos = ?, quantidade = ?, categoria_id = ?, dosagem = ?, requer_receita = ?, versao = versao + 1 WHERE id = ? AND versao = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, produto.getNome());
             stmt.setString(2, produto.getDescricao());
-            stmt.setDouble(3, produto.getPreco());
+            stmt.setLong(3, produto.getPrecoCentavos());
             stmt.setInt(4, produto.getQuantidade());
 
             // --- CORREÇÃO CRÍTICA (A que resolveu o seu erro) ---
@@ -138,14 +283,68 @@ public class ProdutoDAO {
             stmt.setString(6, produto.getDosagem());
             stmt.setBoolean(7, produto.isRequerReceita());
             stmt.setInt(8, produto.getId());
+            stmt.setInt(9, produto.getVersao());
 
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected == 0) {
-                throw new RuntimeException("Produto não encontrado!");
+                // Ou o produto sumiu, ou alguém (outro admin, um checkout) o alterou desde a leitura
+                if (!existe(conn, produto.getId())) {
+                    throw new RuntimeException("Produto não encontrado!");
+                }
+                throw new ConflitoConcorrenciaException("produtos", produto.getId(), produto.getVersao());
             }
+            produto.setVersao(produto.getVersao() + 1);
 
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar produto: " + e.getMessage(), e);
+        } finally {
+            // Mesmo se falhar, a linha pode ter mudado: descarta o que havia em cache
+            invalidarProduto(produto.getId(), produto.getCategoriaId());
+        }
+        avisarSalvo(produto);
+    }
+
+    /**
+     * Dá baixa no estoque de vários produtos em um único executeBatch.
+     * O UPDATE é condicional (quantidade >= ?), então o banco nunca deixa o estoque
+     * ficar negativo, mesmo com checkouts simultâneos.
+     * As chaves são percorridas em ordem crescente de ID para que transações
+     * concorrentes travem as linhas sempre na mesma ordem (evita deadlock).
+     * A versão também sobe: uma edição feita sobre o estoque antigo dá conflito
+     * em vez de desfazer a venda.
+     *
+     * @return os IDs dos produtos que NÃO tinham estoque suficiente (vazio = tudo certo)
+     */
+    public List<Integer> baixarEstoque(Connection conn, SortedMap<Integer, Integer> quantidadesPorProduto) throws SQLException {
+        String sql = "UPDATE produtos SET quantidade = quantidade - ?, versao = versao + 1 WHERE id = ? AND quantidade >= ?";
+        List<Integer> semEstoque = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : quantidadesPorProduto.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.setInt(3, entry.getValue());
+                stmt.addBatch();
+            }
+
+            int[] resultados = stmt.executeBatch();
+            int i = 0;
+            for (Integer produtoId : quantidadesPorProduto.keySet()) {
+                if (resultados[i++] == 0) {
+                    semEstoque.add(produtoId);
+                }
+            }
+        }
+        return semEstoque;
+    }
+
+    // Distingue "a linha sumiu" de "a linha mudou" quando o UPDATE versionado não afeta nada
+    private boolean existe(Connection conn, int produtoId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM produtos WHERE id = ?")) {
+            stmt.setInt(1, produtoId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
@@ -164,29 +363,78 @@ public class ProdutoDAO {
 
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao remover produto: " + e.getMessage(), e);
+        } finally {
+            invalidarProduto(id, null);
+        }
+        for (ProdutoListener listener : listeners) {
+            listener.produtoRemovido(id);
         }
     }
 
-    // Método auxiliar para evitar repetição de código ao ler do banco
-    private Produto mapResultSetToProduto(ResultSet rs) throws SQLException {
-        Produto produto = new Produto();
-        produto.setId(rs.getInt("id"));
-        produto.setNome(rs.getString("nome"));
-        produto.setDescricao(rs.getString("descricao"));
-        produto.setPreco(rs.getDouble("preco"));
-        produto.setQuantidade(rs.getInt("quantidade"));
+    // Registra quem quer ser avisado das escritas no catálogo (ex: índice de busca)
+    public static void adicionarListener(ProdutoListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removerListener(ProdutoListener listener) {
+        listeners.remove(listener);
+    }
 
-        // O getInt retorna 0 se for null no banco, mas precisamos saber se era null mesmo
-        int catId = rs.getInt("categoria_id");
-        if (rs.wasNull()) {
-            produto.setCategoriaId(null); // ou 0, dependendo da sua lógica, mas null é mais correto
+    private void avisarSalvo(Produto produto) {
+        for (ProdutoListener listener : listeners) {
+            listener.produtoSalvo(new Produto(produto));
+        }
+    }
+
+    /**
+     * Descarta do cache os produtos informados (ex: depois que o checkout
+     * confirmou a baixa de estoque deles).
+     */
+    public void invalidarCache(Collection<Integer> produtoIds) {
+        for (Integer id : produtoIds) {
+            invalidarProduto(id, null);
+        }
+    }
+
+    // Usado quando algo fora dos produtos muda as linhas (ex: nome de categoria no JOIN)
+    public static void limparCache() {
+        cachePorId.clear();
+        cacheListas.clear();
+        cachePaginas.clear();
+    }
+
+    public static CacheStats getCacheStats() {
+        return cachePorId.getStats();
+    }
+
+    // Remove a entrada do produto e as listas em que ele pode aparecer.
+    // A categoria antiga vem da entrada em cache; se não estiver lá, as listas
+    // por categoria não têm como estar atualizadas com ele e são todas descartadas.
+    private void invalidarProduto(Integer id, Integer categoriaNova) {
+        Produto anterior = id != null ? cachePorId.peek(id) : null;
+        if (id != null) {
+            cachePorId.invalidate(id);
+        }
+        cacheListas.invalidate(CHAVE_TODOS);
+        cachePaginas.clear();
+        if (anterior != null) {
+            cacheListas.invalidate(chaveCategoria(anterior.getCategoriaId()));
+            cacheListas.invalidate(chaveCategoria(categoriaNova));
         } else {
-            produto.setCategoriaId(catId);
+            cacheListas.invalidateIf(chave -> chave.startsWith(PREFIXO_CATEGORIA));
         }
+    }
 
-        produto.setCategoriaNome(rs.getString("categoria_nome"));
-        produto.setDosagem(rs.getString("dosagem"));
-        produto.setRequerReceita(rs.getBoolean("requer_receita"));
-        return produto;
+    private static String chaveCategoria(Integer categoriaId) {
+        return PREFIXO_CATEGORIA + categoriaId;
+    }
+
+    // Devolve cópias para que alterações de quem chamou não "sujem" o cache
+    private static List<Produto> copiar(List<Produto> produtos) {
+        List<Produto> copia = new ArrayList<>(produtos.size());
+        for (Produto produto : produtos) {
+            copia.add(new Produto(produto));
+        }
+        return copia;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package br.com.moicano.lojinha.dao;
+
+import br.com.moicano.lojinha.model.Produto;
+
+/**
+ * Recebe avisos do ProdutoDAO depois que uma escrita deu certo.
+ * Usado por estruturas em memória que precisam acompanhar o catálogo
+ * (ex: o índice de busca).
+ */
+public interface ProdutoListener {
+
+    // Chamado depois de criar ou atualizar (o produto já tem ID)
+    void produtoSalvo(Produto produto);
+
+    void produtoRemovido(int produtoId);
+}
@@ -0,0 +1,256 @@
+package br.com.moicano.lojinha.dao;
+
+import br.com.moicano.lojinha.database.DatabaseConnection;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.VendaResumo;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * DAO dos relatórios de vendas.
+ *
+ * Os relatórios não somam itens_pedido: leem as tabelas de agregados
+ * (vendas_dia, vendas_produto_dia, vendas_categoria_dia, ver V9), que o
+ * checkout mantém em dia com registrarVendas. O custo de uma consulta depende
+ * do período pedido (dias x produtos vendidos nele), não do tamanho do histórico.
+ *
+ * Se os agregados ficarem inconsistentes (ex: pedidos gravados por fora da
+ * aplicação), reconstruir() os recalcula a partir dos pedidos, inclusive os arquivados.
+ */
+public class RelatorioDAO {
+
+    private static final String MERGE_DIA = """
+            MERGE INTO vendas_dia v
+            USING (VALUES (CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+                AS n(dia, pedidos, unidades, receita_centavos)
+            ON v.dia = n.dia
+            WHEN MATCHED THEN UPDATE SET pedidos = v.pedidos + n.pedidos, unidades = v.unidades + n.unidades,
+                receita_centavos = v.receita_centavos + n.receita_centavos
+            WHEN NOT MATCHED THEN INSERT (dia, pedidos, unidades, receita_centavos)
+                VALUES (n.dia, n.pedidos, n.unidades, n.receita_centavos)
+            """;
+
+    private static final String MERGE_PRODUTO = """
+            MERGE INTO vendas_produto_dia v
+            USING (VALUES (CAST(? AS DATE), CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS BIGINT)))
+                AS n(dia, produto_id, unidades, receita_centavos)
+            ON v.dia = n.dia AND v.produto_id = n.produto_id
+            WHEN MATCHED THEN UPDATE SET unidades = v.unidades + n.unidades, receita_centavos = v.receita_centavos + n.receita_centavos
+            WHEN NOT MATCHED THEN INSERT (dia, produto_id, unidades, receita_centavos)
+                VALUES (n.dia, n.produto_id, n.unidades, n.receita_centavos)
+            """;
+
+    // A categoria vem do cadastro do produto no momento da venda (0 = sem categoria)
+    private static final String MERGE_CATEGORIA = """
+            MERGE INTO vendas_categoria_dia v
+            USING (SELECT CAST(? AS DATE) AS dia, COALESCE(categoria_id, 0) AS categoria_id,
+                          CAST(? AS BIGINT) AS unidades, CAST(? AS BIGINT) AS receita_centavos
+                   FROM produtos WHERE id = ?) n
+            ON v.dia = n.dia AND v.categoria_id = n.categoria_id
+            WHEN MATCHED THEN UPDATE SET unidades = v.unidades + n.unidades, receita_centavos = v.receita_centavos + n.receita_centavos
+            WHEN NOT MATCHED THEN INSERT (dia, categoria_id, unidades, receita_centavos)
+                VALUES (n.dia, n.categoria_id, n.unidades, n.receita_centavos)
+            """;
+
+    /**
+     * Soma os pedidos recém-gravados (e os itens deles, já com o pedidoId) aos
+     * agregados, na transação de quem chama (o GravadorPedidos, antes do commit).
+     * As linhas são somadas em memória antes: um MERGE por dia e por (dia, produto),
+     * sempre na mesma ordem, para que duas transações não travem uma à outra.
+     */
+    public void registrarVendas(Connection conn, Collection<Pedido> pedidos, Collection<ItemPedido> itens) throws SQLException {
+        Map<Integer, LocalDate> diaDoPedido = new HashMap<>();
+        // dia -> {pedidos, unidades, receita}
+        SortedMap<LocalDate, long[]> porDia = new TreeMap<>();
+        for (Pedido pedido : pedidos) {
+            LocalDate dia = pedido.getData().toLocalDate();
+            diaDoPedido.put(pedido.getId(), dia);
+            long[] total = porDia.computeIfAbsent(dia, d -> new long[3]);
+            total[0]++;
+            total[2] += pedido.getValorTotalCentavos();
+        }
+
+        // (dia, produto) -> {unidades, receita}
+        SortedMap<DiaProduto, long[]> porProduto = new TreeMap<>();
+        for (ItemPedido item : itens) {
+            LocalDate dia = diaDoPedido.get(item.getPedidoId());
+            if (dia == null) {
+                throw new IllegalArgumentException("Item do pedido " + item.getPedidoId() + " sem o pedido correspondente.");
+            }
+            porDia.get(dia)[1] += item.getQuantidade();
+            long[] total = porProduto.computeIfAbsent(new DiaProduto(dia, item.getProdutoId()), k -> new long[2]);
+            total[0] += item.getQuantidade();
+            total[1] += item.getSubtotalCentavos();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(MERGE_DIA)) {
+            for (Map.Entry<LocalDate, long[]> entry : porDia.entrySet()) {
+                stmt.setDate(1, Date.valueOf(entry.getKey()));
+                stmt.setLong(2, entry.getValue()[0]);
+                stmt.setLong(3, entry.getValue()[1]);
+                stmt.setLong(4, entry.getValue()[2]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        if (porProduto.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmtProduto = conn.prepareStatement(MERGE_PRODUTO);
+             PreparedStatement stmtCategoria = conn.prepareStatement(MERGE_CATEGORIA)) {
+            for (Map.Entry<DiaProduto, long[]> entry : porProduto.entrySet()) {
+                Date dia = Date.valueOf(entry.getKey().dia());
+                stmtProduto.setDate(1, dia);
+                stmtProduto.setInt(2, entry.getKey().produtoId());
+                stmtProduto.setLong(3, entry.getValue()[0]);
+                stmtProduto.setLong(4, entry.getValue()[1]);
+                stmtProduto.addBatch();
+
+                stmtCategoria.setDate(1, dia);
+                stmtCategoria.setLong(2, entry.getValue()[0]);
+                stmtCategoria.setLong(3, entry.getValue()[1]);
+                stmtCategoria.setInt(4, entry.getKey().produtoId());
+                stmtCategoria.addBatch();
+            }
+            stmtProduto.executeBatch();
+            stmtCategoria.executeBatch();
+        }
+    }
+
+    /**
+     * Apaga os agregados e os recalcula a partir de todos os pedidos (quentes e
+     * arquivados), numa transação. As vendas antigas entram na categoria atual do produto.
+     * Não deve rodar junto com o checkout: use GravadorPedidos.reconstruirRelatorios().
+     * @return quantos dias com vendas foram recalculados.
+     */
+    public int reconstruir() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM vendas_categoria_dia");
+                stmt.executeUpdate("DELETE FROM vendas_produto_dia");
+                stmt.executeUpdate("DELETE FROM vendas_dia");
+                stmt.executeUpdate("""
+                        INSERT INTO vendas_produto_dia (dia, produto_id, unidades, receita_centavos)
+                        SELECT CAST(p.data AS DATE), i.produto_id, SUM(i.quantidade), SUM(i.quantidade * i.preco_unitario_centavos)
+                        FROM (SELECT id, data FROM pedidos UNION ALL SELECT id, data FROM pedidos_arquivo) p
+                        JOIN (SELECT pedido_id, produto_id, quantidade, preco_unitario_centavos FROM itens_pedido
+                              UNION ALL SELECT pedido_id, produto_id, quantidade, preco_unitario_centavos FROM itens_pedido_arquivo) i
+                          ON i.pedido_id = p.id
+                        WHERE p.data IS NOT NULL
+                        GROUP BY CAST(p.data AS DATE), i.produto_id
+                        """);
+                // Por categoria e por dia saem dos agregados por produto, sem reler os itens
+                stmt.executeUpdate("""
+                        INSERT INTO vendas_categoria_dia (dia, categoria_id, unidades, receita_centavos)
+                        SELECT v.dia, COALESCE(pr.categoria_id, 0), SUM(v.unidades), SUM(v.receita_centavos)
+                        FROM vendas_produto_dia v JOIN produtos pr ON pr.id = v.produto_id
+                        GROUP BY v.dia, COALESCE(pr.categoria_id, 0)
+                        """);
+                int dias = stmt.executeUpdate("""
+                        INSERT INTO vendas_dia (dia, pedidos, unidades, receita_centavos)
+                        SELECT p.dia, p.pedidos, COALESCE(v.unidades, 0), p.receita_centavos
+                        FROM (SELECT CAST(data AS DATE) AS dia, COUNT(*) AS pedidos, SUM(valor_total_centavos) AS receita_centavos
+                              FROM (SELECT data, valor_total_centavos FROM pedidos
+                                    UNION ALL SELECT data, valor_total_centavos FROM pedidos_arquivo) t
+                              WHERE data IS NOT NULL
+                              GROUP BY CAST(data AS DATE)) p
+                        LEFT JOIN (SELECT dia, SUM(unidades) AS unidades FROM vendas_produto_dia GROUP BY dia) v ON v.dia = p.dia
+                        """);
+                conn.commit();
+                return dias;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao reconstruir relatórios de vendas: " + e.getMessage(), e);
+        }
+    }
+
+    // Total de cada dia do período (inclusive), em ordem de data; dias sem venda não aparecem
+    public List<VendaResumo> vendasPorDia(LocalDate de, LocalDate ate) {
+        String sql = "SELECT dia, pedidos, unidades, receita_centavos FROM vendas_dia WHERE dia BETWEEN ? AND ? ORDER BY dia";
+        return consultar(sql, "Erro ao consultar vendas por dia: ", true, de, ate, null);
+    }
+
+    // Total de cada categoria no período, da que mais faturou para a que menos faturou
+    public List<VendaResumo> vendasPorCategoria(LocalDate de, LocalDate ate) {
+        String sql = """
+                SELECT v.categoria_id AS id, COALESCE(c.nome, 'Sem categoria') AS nome,
+                       SUM(v.unidades) AS unidades, SUM(v.receita_centavos) AS receita_centavos
+                FROM vendas_categoria_dia v
+                LEFT JOIN categorias c ON c.id = v.categoria_id
+                WHERE v.dia BETWEEN ? AND ?
+                GROUP BY v.categoria_id, c.nome
+                ORDER BY receita_centavos DESC, id
+                """;
+        return consultar(sql, "Erro ao consultar vendas por categoria: ", false, de, ate, null);
+    }
+
+    // Os "limite" produtos com mais unidades vendidas no período
+    public List<VendaResumo> maisVendidos(LocalDate de, LocalDate ate, int limite) {
+        String sql = """
+                SELECT v.produto_id AS id, p.nome AS nome,
+                       SUM(v.unidades) AS unidades, SUM(v.receita_centavos) AS receita_centavos
+                FROM vendas_produto_dia v
+                LEFT JOIN produtos p ON p.id = v.produto_id
+                WHERE v.dia BETWEEN ? AND ?
+                GROUP BY v.produto_id, p.nome
+                ORDER BY unidades DESC, id
+                LIMIT ?
+                """;
+        return consultar(sql, "Erro ao consultar produtos mais vendidos: ", false, de, ate, limite);
+    }
+
+    // porDia: linhas de vendas_dia (dia, pedidos); senão linhas por produto/categoria (id, nome)
+    private List<VendaResumo> consultar(String sql, String erro, boolean porDia, LocalDate de, LocalDate ate, Integer limite) {
+        if (de.isAfter(ate)) {
+            throw new IllegalArgumentException("Período inválido: " + de + " é depois de " + ate + ".");
+        }
+        List<VendaResumo> linhas = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(de));
+            stmt.setDate(2, Date.valueOf(ate));
+            if (limite != null) {
+                stmt.setInt(3, limite);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    VendaResumo linha = new VendaResumo();
+                    if (porDia) {
+                        linha.setDia(rs.getDate("dia").toLocalDate());
+                        linha.setPedidos(rs.getLong("pedidos"));
+                    } else {
+                        linha.setId(rs.getInt("id"));
+                        linha.setNome(rs.getString("nome"));
+                    }
+                    linha.setUnidades(rs.getLong("unidades"));
+                    linha.setReceitaCentavos(rs.getLong("receita_centavos"));
+                    linhas.add(linha);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(erro + e.getMessage(), e);
+        }
+        return linhas;
+    }
+
+    private record DiaProduto(LocalDate dia, int produtoId) implements Comparable<DiaProduto> {
+        @Override
+        public int compareTo(DiaProduto outro) {
+            int porDia = dia.compareTo(outro.dia);
+            return porDia != 0 ? porDia : Integer.compare(produtoId, outro.produtoId);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package br.com.moicano.lojinha.dao;
+
+import br.com.moicano.lojinha.model.Categoria;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.Produto;
+import br.com.moicano.lojinha.model.StatusPedido;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Todo o mapeamento de linhas do banco para o modelo fica aqui.
+ *
+ * Para cada modelo há um "compilador" que recebe as colunas do resultado,
+ * resolve os índices de que precisa e devolve um RowMapper que só lê por
+ * posição. O mapeador compilado é guardado por (SQL, classe do modelo): a
+ * mesma consulta sempre traz as mesmas colunas, então a metadata só é
+ * consultada na primeira execução de cada SQL.
+ *
+ * Uso nos DAOs:
+ * <pre>
+ * RowMapper&lt;Produto&gt; mapper = RowMappers.para(sql, Produto.class, rs);
+ * while (rs.next()) produtos.add(mapper.mapRow(rs));
+ * </pre>
+ */
+final class RowMappers {
+
+    @FunctionalInterface
+    private interface Compilador<T> {
+        RowMapper<T> compilar(Colunas colunas) throws SQLException;
+    }
+
+    private record Chave(String sql, Class<?> tipo) {}
+
+    private static final Map<Class<?>, Compilador<?>> compiladores = Map.of(
+            Produto.class, (Compilador<Produto>) RowMappers::produto,
+            Categoria.class, (Compilador<Categoria>) RowMappers::categoria,
+            Pedido.class, (Compilador<Pedido>) RowMappers::pedido,
+            ItemPedido.class, (Compilador<ItemPedido>) RowMappers::itemPedido
+    );
+
+    // Os SQLs dos DAOs são constantes, então o cache não cresce sem limite
+    private static final Map<Chave, RowMapper<?>> compilados = new ConcurrentHashMap<>();
+
+    private RowMappers() {}
+
+    /**
+     * Devolve o mapeador de {@code tipo} para o resultado de {@code sql},
+     * compilando-o a partir da metadata de {@code rs} na primeira vez.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RowMapper<T> para(String sql, Class<T> tipo, ResultSet rs) throws SQLException {
+        Chave chave = new Chave(sql, tipo);
+        RowMapper<T> mapper = (RowMapper<T>) compilados.get(chave);
+        if (mapper == null) {
+            Compilador<T> compilador = (Compilador<T>) compiladores.get(tipo);
+            if (compilador == null) {
+                throw new IllegalArgumentException("Sem mapeamento de linhas para " + tipo.getSimpleName());
+            }
+            // Duas threads podem compilar ao mesmo tempo; o resultado é igual, fica o primeiro
+            mapper = compilador.compilar(new Colunas(rs.getMetaData()));
+            RowMapper<T> anterior = (RowMapper<T>) compilados.putIfAbsent(chave, mapper);
+            if (anterior != null) {
+                mapper = anterior;
+            }
+        }
+        return mapper;
+    }
+
+    private static RowMapper<Produto> produto(Colunas colunas) throws SQLException {
+        int id = colunas.indice("id");
+        int nome = colunas.indice("nome");
+        int descricao = colunas.indice("descricao");
+        int precoCentavos = colunas.indice("preco_centavos");
+        int quantidade = colunas.indice("quantidade");
+        int categoriaId = colunas.indice("categoria_id");
+        int categoriaNome = colunas.indiceOpcional("categoria_nome");
+        int dosagem = colunas.indice("dosagem");
+        int requerReceita = colunas.indice("requer_receita");
+        int versao = colunas.indice("versao");
+
+        return rs -> {
+            Produto produto = new Produto();
+            produto.setId(rs.getInt(id));
+            produto.setNome(rs.getString(nome));
+            produto.setDescricao(rs.getString(descricao));
+            produto.setPrecoCentavos(rs.getLong(precoCentavos));
+            produto.setQuantidade(rs.getInt(quantidade));
+
+            // O getInt retorna 0 se for null no banco, mas precisamos saber se era null mesmo
+            int catId = rs.getInt(categoriaId);
+            produto.setCategoriaId(rs.wasNull() ? null : catId);
+
+            if (categoriaNome > 0) {
+                produto.setCategoriaNome(rs.getString(categoriaNome));
+            }
+            produto.setDosagem(rs.getString(dosagem));
+            produto.setRequerReceita(rs.getBoolean(requerReceita));
+            produto.setVersao(rs.getInt(versao));
+            return produto;
+        };
+    }
+
+    private static RowMapper<Categoria> categoria(Colunas colunas) throws SQLException {
+        int id = colunas.indice("id");
+        int nome = colunas.indice("nome");
+        int descricao = colunas.indice("descricao");
+
+        return rs -> {
+            Categoria categoria = new Categoria();
+            categoria.setId(rs.getInt(id));
+            categoria.setNome(rs.getString(nome));
+            categoria.setDescricao(rs.getString(descricao));
+            return categoria;
+        };
+    }
+
+    private static RowMapper<Pedido> pedido(Colunas colunas) throws SQLException {
+        int id = colunas.indice("id");
+        int data = colunas.indice("data");
+        int valorTotalCentavos = colunas.indice("valor_total_centavos");
+        int clienteNome = colunas.indice("cliente_nome");
+        int status = colunas.indice("status");
+        int versao = colunas.indice("versao");
+        int chaveIdempotencia = colunas.indiceOpcional("chave_idempotencia");
+
+        return rs -> {
+            Pedido pedido = new Pedido();
+            pedido.setId(rs.getInt(id));
+            Timestamp dataPedido = rs.getTimestamp(data);
+            pedido.setData(dataPedido != null ? dataPedido.toLocalDateTime() : null);
+            pedido.setValorTotalCentavos(rs.getLong(valorTotalCentavos));
+            pedido.setClienteNome(rs.getString(clienteNome));
+            pedido.setStatus(StatusPedido.doCodigo(rs.getString(status).charAt(0)));
+            pedido.setVersao(rs.getInt(versao));
+            if (chaveIdempotencia > 0) {
+                pedido.setChaveIdempotencia(rs.getString(chaveIdempotencia));
+            }
+            return pedido;
+        };
+    }
+
+    private static RowMapper<ItemPedido> itemPedido(Colunas colunas) throws SQLException {
+        int id = colunas.indice("id");
+        int pedidoId = colunas.indice("pedido_id");
+        int produtoId = colunas.indice("produto_id");
+        int quantidade = colunas.indice("quantidade");
+        int precoUnitarioCentavos = colunas.indice("preco_unitario_centavos");
+        // Campo extra obtido através do JOIN com produtos (não existe em 'itens_pedido')
+        int produtoNome = colunas.indiceOpcional("produto_nome");
+
+        return rs -> {
+            ItemPedido item = new ItemPedido();
+            item.setId(rs.getInt(id));
+            item.setPedidoId(rs.getInt(pedidoId));
+            item.setProdutoId(rs.getInt(produtoId));
+            item.setQuantidade(rs.getInt(quantidade));
+            item.setPrecoUnitarioCentavos(rs.getLong(precoUnitarioCentavos));
+            if (produtoNome > 0) {
+                item.setProdutoNome(rs.getString(produtoNome));
+            }
+            return item;
+        };
+    }
+}
@@ -5,11 +5,12 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class H2ConnectionFactory implements ConnectionFactory {
-    private static final String URL = "jdbc:h2:./lojinha";
+    // Pode ser trocada por -Dlojinha.db.url=... (ex: banco em memória nos benchmarks)
+    private static final String URL = System.getProperty("lojinha.db.url", "jdbc:h2:./lojinha");
     private static final String USER = "sa";
     private static final String PASSWORD = "";
 
-    private static H2ConnectionFactory instance;
+    private static volatile H2ConnectionFactory instance;
 
     // Singleton para garantir uma única instância da factory
     private H2ConnectionFactory() {}
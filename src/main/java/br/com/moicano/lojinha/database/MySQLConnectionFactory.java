@@ -30,7 +30,7 @@ public class MySQLConnectionFactory implements ConnectionFactory {
     private static final String USER = "root";
     private static final String PASSWORD = "senha123";
 
-    private static MySQLConnectionFactory instance;
+    private static volatile MySQLConnectionFactory instance;
 
     private MySQLConnectionFactory() {}
 
@@ -0,0 +1,70 @@
+package br.com.moicano.lojinha.database;
+
+/**
+ * Configuração do pool de conexões.
+ * Os valores padrão atendem o uso local com H2; cada um pode ser sobrescrito
+ * por System property (ex: -Dlojinha.pool.maxSize=20).
+ */
+public class PoolConfig {
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long borrowTimeoutMs = 5_000;
+    private long idleTimeoutMs = 5 * 60_000;
+    private long leakThresholdMs = 60_000;
+    private long maintenanceIntervalMs = 30_000;
+    private boolean validateOnBorrow = true;
+    private int validationTimeoutSeconds = 2;
+    // PreparedStatements guardados por conexão (0 desliga o cache)
+    private int statementCacheSize = 64;
+
+    public PoolConfig() {}
+
+    public static PoolConfig fromSystemProperties() {
+        PoolConfig config = new PoolConfig();
+        config.setMinSize(Integer.getInteger("lojinha.pool.minSize", config.getMinSize()));
+        config.setMaxSize(Integer.getInteger("lojinha.pool.maxSize", config.getMaxSize()));
+        config.setBorrowTimeoutMs(Long.getLong("lojinha.pool.borrowTimeoutMs", config.getBorrowTimeoutMs()));
+        config.setIdleTimeoutMs(Long.getLong("lojinha.pool.idleTimeoutMs", config.getIdleTimeoutMs()));
+        config.setLeakThresholdMs(Long.getLong("lojinha.pool.leakThresholdMs", config.getLeakThresholdMs()));
+        config.setMaintenanceIntervalMs(Long.getLong("lojinha.pool.maintenanceIntervalMs", config.getMaintenanceIntervalMs()));
+        config.setStatementCacheSize(Integer.getInteger("lojinha.pool.statementCacheSize", config.getStatementCacheSize()));
+        String validate = System.getProperty("lojinha.pool.validateOnBorrow");
+        if (validate != null) {
+            config.setValidateOnBorrow(Boolean.parseBoolean(validate));
+        }
+        return config;
+    }
+
+    // Garante que a combinação de valores faz sentido antes de criar o pool
+    void validate() {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Tamanho do pool inválido: min=" + minSize + ", max=" + maxSize);
+        }
+        if (borrowTimeoutMs <= 0 || maintenanceIntervalMs <= 0) {
+            throw new IllegalArgumentException("Timeouts do pool devem ser positivos");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Tamanho do cache de statements inválido: " + statementCacheSize);
+        }
+    }
+
+    // Getters e Setters
+    public int getMinSize() { return minSize; }
+    public void setMinSize(int minSize) { this.minSize = minSize; }
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+    public long getBorrowTimeoutMs() { return borrowTimeoutMs; }
+    public void setBorrowTimeoutMs(long borrowTimeoutMs) { this.borrowTimeoutMs = borrowTimeoutMs; }
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public void setIdleTimeoutMs(long idleTimeoutMs) { this.idleTimeoutMs = idleTimeoutMs; }
+    public long getLeakThresholdMs() { return leakThresholdMs; }
+    public void setLeakThresholdMs(long leakThresholdMs) { this.leakThresholdMs = leakThresholdMs; }
+    public long getMaintenanceIntervalMs() { return maintenanceIntervalMs; }
+    public void setMaintenanceIntervalMs(long maintenanceIntervalMs) { this.maintenanceIntervalMs = maintenanceIntervalMs; }
+    public boolean isValidateOnBorrow() { return validateOnBorrow; }
+    public void setValidateOnBorrow(boolean validateOnBorrow) { this.validateOnBorrow = validateOnBorrow; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public void setStatementCacheSize(int statementCacheSize) { this.statementCacheSize = statementCacheSize; }
+}
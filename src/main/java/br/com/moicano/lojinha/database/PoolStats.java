@@ -0,0 +1,38 @@
+package br.com.moicano.lojinha.database;
+
+/**
+ * Fotografia (imutável) das métricas do pool em um instante.
+ * Útil para logs e monitoramento.
+ */
+public record PoolStats(
+        int total,
+        int idle,
+        int active,
+        int waiting,
+        long borrowed,
+        long created,
+        long destroyed,
+        long timeouts,
+        long validationFailures,
+        long leaksDetected,
+        double avgWaitMs,
+        long statementHits,
+        long statementMisses,
+        long statementEvictions) {
+
+    // Fração dos prepareStatement atendidos pelo cache de statements (0 a 1)
+    public double statementHitRate() {
+        long total = statementHits + statementMisses;
+        return total == 0 ? 0 : (double) statementHits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pool[total=%d, ociosas=%d, em uso=%d, aguardando=%d, empréstimos=%d, criadas=%d, "
+                        + "destruídas=%d, timeouts=%d, inválidas=%d, vazamentos=%d, espera média=%.3f ms, "
+                        + "statements: acertos=%d, falhas=%d, taxa=%.1f%%, descartados=%d]",
+                total, idle, active, waiting, borrowed, created, destroyed,
+                timeouts, validationFailures, leaksDetected, avgWaitMs,
+                statementHits, statementMisses, statementHitRate() * 100, statementEvictions);
+    }
+}
@@ -0,0 +1,508 @@
+package br.com.moicano.lojinha.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexões que decora outra ConnectionFactory (ex: H2ConnectionFactory).
+ *
+ * As conexões entregues aos DAOs são proxies: chamar close() (o que o
+ * try-with-resources já faz) devolve a conexão física ao pool em vez de
+ * encerrar a sessão no banco.
+ *
+ * Recursos: tamanho mínimo/máximo, remoção de conexões ociosas, validação no
+ * empréstimo, timeout de espera e detecção de vazamento (conexão emprestada
+ * por tempo demais).
+ *
+ * Cada conexão física guarda também seus PreparedStatements (StatementCache):
+ * o SQL constante de um DAO é preparado uma vez por conexão, e não a cada chamada.
+ * O statement entregue também é um proxy, e o close() dele devolve ao cache.
+ */
+public class PooledConnectionFactory implements ConnectionFactory {
+    // Fatia máxima de espera; permite perceber vagas abertas por conexões destruídas
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // Conexões usadas há menos tempo que isso não precisam de validação
+    private static final long VALIDATION_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final ConnectionFactory delegate;
+    private final PoolConfig config;
+
+    // Ociosas: a frente da fila é a conexão usada mais recentemente (LIFO mantém as "quentes")
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    // Uma licença por conexão que pode estar emprestada. É o limitador de concorrência
+    // do acesso ao banco: com virtual threads, milhares de requisições podem esperar
+    // aqui (em ordem de chegada) sem ocupar threads do sistema operacional
+    private final Semaphore permits;
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+    // Métricas
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    public PooledConnectionFactory(ConnectionFactory delegate, PoolConfig config) {
+        config.validate();
+        this.delegate = delegate;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lojinha-pool-manutencao");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = config.getMaintenanceIntervalMs();
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool de conexões já foi encerrado");
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getBorrowTimeoutMs());
+        acquirePermit(start);
+
+        boolean borrowedOk = false;
+        try {
+            while (true) {
+                PooledConnection pc = idle.pollFirst();
+                if (pc == null) {
+                    pc = tryCreate();
+                }
+                if (pc == null) {
+                    // Com a licença em mãos sempre há conexão; ela só pode estar a caminho
+                    // da fila (devolução ou manutenção em andamento)
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw timeout();
+                    }
+                    try {
+                        pc = idle.pollFirst(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrompido ao aguardar conexão do pool", e);
+                    }
+                    if (pc == null) {
+                        continue;
+                    }
+                }
+
+                if (!isUsable(pc)) {
+                    validationFailures.increment();
+                    destroy(pc);
+                    continue;
+                }
+
+                pc.markBorrowed(config.getLeakThresholdMs() > 0);
+                active.add(pc);
+                borrowed.increment();
+                waitNanos.add(System.nanoTime() - start);
+                borrowedOk = true;
+                return pc.newHandle();
+            }
+        } finally {
+            if (!borrowedOk) {
+                permits.release();
+            }
+        }
+    }
+
+    // Espera (na fila justa do semáforo) até uma das maxSize vagas de uso ficar livre
+    private void acquirePermit(long start) throws SQLException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(config.getBorrowTimeoutMs()) - (System.nanoTime() - start);
+        try {
+            if (!permits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                throw timeout();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido ao aguardar conexão do pool", e);
+        }
+    }
+
+    private SQLTimeoutException timeout() {
+        timeouts.increment();
+        return new SQLTimeoutException("Timeout ao aguardar conexão do pool ("
+                + config.getBorrowTimeoutMs() + " ms). " + getStats());
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        // Para conexões do pool, close() já significa "devolver"
+        if (connection != null && !connection.isClosed()) {
+            connection.close();
+        }
+    }
+
+    public PoolStats getStats() {
+        long count = borrowed.sum();
+        double avgWaitMs = count == 0 ? 0 : (waitNanos.sum() / (double) count) / 1_000_000.0;
+        return new PoolStats(total.get(), idle.size(), active.size(), permits.getQueueLength(),
+                count, created.sum(), destroyed.sum(), timeouts.sum(),
+                validationFailures.sum(), leaksDetected.sum(), avgWaitMs,
+                statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+    }
+
+    /**
+     * Encerra o pool: fecha as conexões ociosas agora e as emprestadas
+     * assim que forem devolvidas.
+     */
+    public void shutdown() {
+        closed = true;
+        maintenance.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    // Reserva uma vaga antes de abrir a conexão física, para nunca passar do máximo
+    private PooledConnection tryCreate() throws SQLException {
+        while (true) {
+            int current = total.get();
+            if (current >= config.getMaxSize()) {
+                return null;
+            }
+            if (total.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        try {
+            PooledConnection pc = new PooledConnection(delegate.getConnection());
+            created.increment();
+            return pc;
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        try {
+            if (pc.physical.isClosed()) {
+                return false;
+            }
+            if (config.isValidateOnBorrow() && System.nanoTime() - pc.lastUsedNanos > VALIDATION_GRACE_NANOS) {
+                return pc.physical.isValid(config.getValidationTimeoutSeconds());
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Chamado pelo proxy quando o DAO fecha a conexão
+    private void release(PooledConnection pc) {
+        try {
+            active.remove(pc);
+            if (closed || !reset(pc)) {
+                destroy(pc);
+                return;
+            }
+            pc.lastUsedNanos = System.nanoTime();
+            pc.borrowStack = null;
+            pc.leakReported = false;
+            idle.offerFirst(pc);
+        } finally {
+            // Só depois de a conexão estar de volta na fila, para quem pegar a licença encontrá-la
+            permits.release();
+        }
+    }
+
+    // Desfaz o que o último usuário possa ter alterado na sessão
+    private boolean reset(PooledConnection pc) {
+        try {
+            Connection c = pc.physical;
+            if (c.isClosed()) {
+                return false;
+            }
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) {
+                c.setReadOnly(false);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ERRO: Conexão descartada ao voltar para o pool: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        total.decrementAndGet();
+        destroyed.increment();
+        if (pc.statements != null) {
+            pc.statements.closeAll();
+        }
+        try {
+            delegate.closeConnection(pc.physical);
+        } catch (SQLException e) {
+            System.err.println("ERRO: Erro ao fechar conexão física: " + e.getMessage());
+        }
+    }
+
+    private void runMaintenance() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            System.err.println("ERRO: Falha na manutenção do pool: " + e.getMessage());
+        }
+    }
+
+    // Fecha as conexões paradas há muito tempo, sem descer abaixo do mínimo
+    private void evictIdle() {
+        long limit = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMs());
+        long now = System.nanoTime();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && total.get() > config.getMinSize()) {
+            PooledConnection pc = it.next();
+            if (now - pc.lastUsedNanos > limit && idle.removeLastOccurrence(pc)) {
+                destroy(pc);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && total.get() < config.getMinSize()) {
+            try {
+                PooledConnection pc = tryCreate();
+                if (pc == null) {
+                    return;
+                }
+                idle.offerLast(pc);
+            } catch (SQLException e) {
+                System.err.println("ERRO: Não foi possível abrir conexão mínima do pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakThresholdMs();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PooledConnection pc : active) {
+            long heldMs = TimeUnit.NANOSECONDS.toMillis(now - pc.borrowedAtNanos);
+            if (heldMs > threshold && !pc.leakReported) {
+                pc.leakReported = true;
+                leaksDetected.increment();
+                System.err.println("AVISO: Possível vazamento de conexão (emprestada há " + heldMs + " ms).");
+                if (pc.borrowStack != null) {
+                    pc.borrowStack.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Conexão física mantida pelo pool. Cada empréstimo gera um proxy novo,
+     * para que uma referência antiga (de quem já devolveu) não consiga mais usá-la.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        // null quando o cache de statements está desligado (statementCacheSize = 0)
+        private final StatementCache statements;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private volatile long borrowedAtNanos;
+        private volatile Throwable borrowStack;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            int cacheSize = config.getStatementCacheSize();
+            this.statements = cacheSize > 0 ? new StatementCache(cacheSize, statementEvictions) : null;
+        }
+
+        private void markBorrowed(boolean captureStack) {
+            borrowedAtNanos = System.nanoTime();
+            borrowStack = captureStack ? new Throwable("Conexão emprestada aqui") : null;
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + "]";
+                default:
+                    break;
+            }
+            if (returned.get()) {
+                throw new SQLException("Conexão já foi devolvida ao pool");
+            }
+            if (pc.statements != null && method.getName().equals("prepareStatement")) {
+                StatementCache.Key key = StatementCache.Key.of(method, args);
+                if (key != null) {
+                    return prepareCached((Connection) proxy, key, method, args);
+                }
+            }
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private PreparedStatement prepareCached(Connection proxy, StatementCache.Key key,
+                                                Method method, Object[] args) throws Throwable {
+            PreparedStatement stmt = pc.statements.take(key);
+            if (stmt != null && !stmt.isClosed()) {
+                statementHits.increment();
+            } else {
+                statementMisses.increment();
+                try {
+                    stmt = (PreparedStatement) method.invoke(pc.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementHandle(this, proxy, key, stmt));
+        }
+    }
+
+    /**
+     * Proxy do PreparedStatement em cache: close() limpa os parâmetros e devolve
+     * o statement ao cache da conexão em vez de fechá-lo no banco.
+     */
+    private final class StatementHandle implements InvocationHandler {
+        private final Handle connectionHandle;
+        private final Connection connectionProxy;
+        private final StatementCache.Key key;
+        private final PreparedStatement stmt;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private StatementHandle(Handle connectionHandle, Connection connectionProxy,
+                                StatementCache.Key key, PreparedStatement stmt) {
+            this.connectionHandle = connectionHandle;
+            this.connectionProxy = connectionProxy;
+            this.key = key;
+            this.stmt = stmt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        recycle();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || stmt.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + stmt + "]";
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Statement já foi fechado");
+            }
+            if (connectionHandle.returned.get()) {
+                throw new SQLException("Conexão já foi devolvida ao pool");
+            }
+            try {
+                return method.invoke(stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Deixa o statement como recém-preparado para o próximo uso
+        private void recycle() {
+            try {
+                if (!stmt.isClosed()) {
+                    ResultSet rs = stmt.getResultSet();
+                    if (rs != null) {
+                        rs.close();
+                    }
+                    stmt.clearParameters();
+                    stmt.clearBatch();
+                    stmt.clearWarnings();
+                    if (connectionHandle.pc.statements.giveBack(key, stmt)) {
+                        return;
+                    }
+                    stmt.close();
+                }
+            } catch (SQLException e) {
+                try {
+                    stmt.close();
+                } catch (SQLException ignored) {
+                    // O statement já estava inutilizável; a conexão segue normalmente
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package br.com.moicano.lojinha.database;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Aplica as migrações versionadas do schema (db/migration no classpath).
+ *
+ * Cada script aplicado é registrado na tabela schema_version junto com o seu
+ * checksum. Na inicialização só rodam os scripts que ainda não estão lá, e um
+ * script já aplicado que tenha sido modificado interrompe a subida (o banco
+ * deixaria de corresponder ao código).
+ *
+ * Um script NÃO é aplicado de forma atômica: o H2 faz commit de cada DDL
+ * (ALTER/CREATE/DROP) na hora, e um rollback não desfaz o que já rodou. Por
+ * isso a versão é registrada antes de começar (concluida = FALSE) e o número
+ * de comandos já executados (passos) é gravado a cada comando. Se a aplicação
+ * cair no meio de um script, na próxima subida ele continua do primeiro comando
+ * que não rodou, em vez de repetir os anteriores ("column already exists").
+ */
+public class SchemaMigrator {
+    private static final String MIGRATION_DIR = "db/migration/";
+    private static final String MIGRATION_INDEX = MIGRATION_DIR + "migrations.txt";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private final ClassLoader classLoader;
+
+    public SchemaMigrator() {
+        this.classLoader = SchemaMigrator.class.getClassLoader();
+    }
+
+    /**
+     * Leva o banco até a última versão.
+     * @return quantas migrações foram aplicadas nesta execução (0 = já estava atualizado).
+     */
+    public int migrate(Connection conn) throws SQLException {
+        createVersionTable(conn);
+        Map<Integer, Applied> applied = loadApplied(conn);
+
+        int count = 0;
+        for (Migration migration : loadMigrations()) {
+            Applied state = applied.get(migration.version());
+            if (state != null) {
+                if (state.checksum() != migration.checksum()) {
+                    throw new IllegalStateException("Checksum da migração V" + migration.version()
+                            + " (" + migration.fileName() + ") não confere com o já aplicado no banco. "
+                            + "Migrações aplicadas não podem ser alteradas; crie uma nova.");
+                }
+                if (state.completed()) {
+                    continue;
+                }
+                System.out.println("AVISO: Retomando " + migration.fileName() + " (" + state.steps() + " de "
+                        + migration.statements().size() + " comandos já executados).");
+            }
+            apply(conn, migration, state);
+            count++;
+        }
+        return count;
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        versao INT PRIMARY KEY,
+                        descricao VARCHAR(200) NOT NULL,
+                        checksum BIGINT NOT NULL,
+                        aplicada_em TIMESTAMP NOT NULL,
+                        tempo_ms BIGINT NOT NULL
+                    )
+                    """);
+            // Bancos criados antes do registro de progresso: as versões já gravadas estão completas
+            stmt.execute("ALTER TABLE schema_version ADD COLUMN IF NOT EXISTS concluida BOOLEAN DEFAULT TRUE NOT NULL");
+            stmt.execute("ALTER TABLE schema_version ADD COLUMN IF NOT EXISTS passos INT DEFAULT 0 NOT NULL");
+        }
+    }
+
+    private Map<Integer, Applied> loadApplied(Connection conn) throws SQLException {
+        Map<Integer, Applied> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT versao, checksum, concluida, passos FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("versao"),
+                        new Applied(rs.getLong("checksum"), rs.getBoolean("concluida"), rs.getInt("passos")));
+            }
+        }
+        return applied;
+    }
+
+    // Roda os comandos que faltam, gravando o progresso depois de cada um
+    private void apply(Connection conn, Migration migration, Applied state) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        int step = state != null ? state.steps() : 0;
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement progress = conn.prepareStatement("UPDATE schema_version SET passos = ? WHERE versao = ?")) {
+            if (state == null) {
+                String insert = "INSERT INTO schema_version (versao, descricao, checksum, aplicada_em, tempo_ms, concluida, passos) "
+                        + "VALUES (?, ?, ?, ?, 0, FALSE, 0)";
+                try (PreparedStatement ps = conn.prepareStatement(insert)) {
+                    ps.setInt(1, migration.version());
+                    ps.setString(2, migration.description());
+                    ps.setLong(3, migration.checksum());
+                    ps.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            }
+
+            List<String> statements = migration.statements();
+            for (; step < statements.size(); step++) {
+                stmt.execute(statements.get(step));
+                // Um UPDATE/INSERT do script e o seu progresso entram no mesmo commit; um DDL
+                // já foi confirmado pelo H2 ao rodar, e o progresso dele vem logo em seguida
+                progress.setInt(1, step + 1);
+                progress.setInt(2, migration.version());
+                progress.executeUpdate();
+                conn.commit();
+            }
+
+            String done = "UPDATE schema_version SET concluida = TRUE, aplicada_em = ?, tempo_ms = ? WHERE versao = ?";
+            try (PreparedStatement ps = conn.prepareStatement(done)) {
+                ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setLong(2, (System.nanoTime() - start) / 1_000_000);
+                ps.setInt(3, migration.version());
+                ps.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Migração aplicada: " + migration.fileName());
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Falha ao aplicar " + migration.fileName() + " no comando " + (step + 1)
+                    + " (os anteriores já estão no banco; a próxima inicialização continua deste): " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Lê o índice de migrações e os scripts, já validando a ordem das versões
+    private List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        int lastVersion = 0;
+        for (String fileName : readLines(MIGRATION_INDEX)) {
+            Matcher m = FILE_NAME.matcher(fileName);
+            if (!m.matches()) {
+                throw new IllegalStateException("Nome de migração inválido: " + fileName + " (esperado V<n>__descricao.sql)");
+            }
+            int version = Integer.parseInt(m.group(1));
+            if (version <= lastVersion) {
+                throw new IllegalStateException("Migrações fora de ordem ou duplicadas em " + MIGRATION_INDEX + ": " + fileName);
+            }
+            lastVersion = version;
+
+            String script = readResource(MIGRATION_DIR + fileName);
+            migrations.add(new Migration(version, m.group(2).replace('_', ' '), fileName,
+                    checksum(script), splitStatements(script)));
+        }
+        return migrations;
+    }
+
+    private List<String> readLines(String resource) {
+        List<String> lines = new ArrayList<>();
+        for (String line : readResource(resource).split("\n")) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private String readResource(String resource) {
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Recurso não encontrado no classpath: " + resource);
+            }
+            StringBuilder sb = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    sb.append(line).append('\n');
+                }
+            }
+            return sb.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler " + resource + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Quebra o script em comandos: ';' no fim da linha encerra o comando; linhas "--" são comentários
+    private static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private record Applied(long checksum, boolean completed, int steps) {}
+
+    private record Migration(int version, String description, String fileName, long checksum, List<String> statements) {}
+}
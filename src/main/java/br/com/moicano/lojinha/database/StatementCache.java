@@ -0,0 +1,112 @@
+package br.com.moicano.lojinha.database;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache de PreparedStatements de UMA conexão física do pool, indexado pelo SQL.
+ *
+ * Um statement em uso sai do cache (take) e só volta quando o DAO o fecha
+ * (giveBack); assim o mesmo SQL aberto duas vezes na mesma conexão nunca
+ * compartilha o objeto. Guarda no máximo maxSize statements ociosos: o menos
+ * usado é fechado para dar lugar ao novo (LRU).
+ */
+final class StatementCache {
+
+    /**
+     * Identifica o statement: além do SQL, as opções com que foi preparado.
+     * Só as sobrecargas usadas pelos DAOs são cacheadas; as demais têm key == null.
+     */
+    record Key(String sql, int resultSetType, int concurrency, int autoGeneratedKeys) {
+
+        static Key of(Method method, Object[] args) {
+            Class<?>[] types = method.getParameterTypes();
+            if (types.length == 1) {
+                return new Key((String) args[0], -1, -1, -1);
+            }
+            if (types.length == 2 && types[1] == int.class) {
+                return new Key((String) args[0], -1, -1, (Integer) args[1]);
+            }
+            if (types.length == 3 && types[1] == int.class && types[2] == int.class) {
+                return new Key((String) args[0], (Integer) args[1], (Integer) args[2], -1);
+            }
+            return null;
+        }
+    }
+
+    private final LinkedHashMap<Key, PreparedStatement> statements;
+    private final LongAdder evictions;
+    // Fechar um statement é I/O no driver: com synchronized prenderia a thread portadora das virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean closed;
+
+    StatementCache(int maxSize, LongAdder evictions) {
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    StatementCache.this.evictions.increment();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Retira um statement ocioso para uso; null se não houver
+    PreparedStatement take(Key key) {
+        lock.lock();
+        try {
+            return statements.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devolve um statement depois de usado.
+     * @return false se não cabe mais (cache fechado ou já há outro com o mesmo SQL);
+     *         nesse caso quem chamou deve fechá-lo.
+     */
+    boolean giveBack(Key key, PreparedStatement stmt) {
+        lock.lock();
+        try {
+            if (closed || statements.containsKey(key)) {
+                return false;
+            }
+            statements.put(key, stmt);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Chamado quando a conexão física é descartada pelo pool
+    void closeAll() {
+        lock.lock();
+        try {
+            closed = true;
+            for (PreparedStatement stmt : statements.values()) {
+                closeQuietly(stmt);
+            }
+            statements.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("ERRO: Erro ao fechar statement do cache: " + e.getMessage());
+        }
+    }
+}
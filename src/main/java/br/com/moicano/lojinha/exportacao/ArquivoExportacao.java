@@ -0,0 +1,213 @@
+package br.com.moicano.lojinha.exportacao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Um arquivo de exportação sendo escrito, registro a registro.
+ *
+ * Cada registro é montado num StringBuilder reaproveitado e codificado em UTF-8
+ * direto num ByteBuffer de {@value #TAMANHO_BUFFER} bytes, que só vai para o
+ * FileChannel quando enche: nenhum byte[] por linha e poucas chamadas de escrita,
+ * qualquer que seja o número de linhas. Com gzip o canal passa pelo
+ * GZIPOutputStream antes do arquivo.
+ *
+ * O conteúdo é escrito num arquivo temporário ao lado do destino e só é movido
+ * para o nome final em concluir(): quem lê o diretório nunca vê um arquivo pela
+ * metade. Fechar sem concluir apaga o temporário.
+ */
+final class ArquivoExportacao implements Closeable {
+    private static final int TAMANHO_BUFFER = 256 * 1024;
+
+    private final Path destino;
+    private final Path temporario;
+    private final Formato formato;
+    private final String[] colunas;
+    private final FileChannel arquivo;
+    private final GZIPOutputStream gzip;
+    private final WritableByteChannel canal;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder linha = new StringBuilder(512);
+    private long registros;
+    private boolean concluido;
+
+    ArquivoExportacao(Path destino, Formato formato, boolean comGzip, String... colunas) throws IOException {
+        this.destino = destino;
+        this.temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        this.formato = formato;
+        this.colunas = colunas;
+
+        this.arquivo = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (comGzip) {
+            this.gzip = new GZIPOutputStream(Channels.newOutputStream(arquivo), TAMANHO_BUFFER);
+            this.canal = Channels.newChannel(this.gzip);
+            // O GZIPOutputStream copia para o seu próprio byte[]: buffer no heap basta
+            this.buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+        } else {
+            this.gzip = null;
+            this.canal = arquivo;
+            // Buffer direto: o FileChannel escreve dele sem cópia intermediária
+            this.buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        }
+
+        if (formato == Formato.CSV) {
+            for (int i = 0; i < colunas.length; i++) {
+                if (i > 0) linha.append(',');
+                linha.append(colunas[i]);
+            }
+            escreverLinha();
+        }
+    }
+
+    /**
+     * Escreve um registro com um valor por coluna, na ordem do construtor.
+     * Valores: null, String, Number, Boolean, ou qualquer outro (escrito pelo toString()).
+     */
+    void registro(Object... valores) {
+        if (valores.length != colunas.length) {
+            throw new IllegalArgumentException("Esperava " + colunas.length + " valores, vieram " + valores.length);
+        }
+        if (formato == Formato.CSV) {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) linha.append(',');
+                campoCsv(valores[i]);
+            }
+        } else {
+            linha.append('{');
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) linha.append(',');
+                textoJson(colunas[i]);
+                linha.append(':');
+                campoJson(valores[i]);
+            }
+            linha.append('}');
+        }
+        try {
+            escreverLinha();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao escrever " + destino + ": " + e.getMessage(), e);
+        }
+        registros++;
+    }
+
+    long getRegistros() { return registros; }
+
+    // Grava o que falta, garante que chegou ao disco e publica o arquivo com o nome final
+    void concluir() throws IOException {
+        despejar();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        arquivo.force(false);
+        canal.close();
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        concluido = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!concluido) {
+            try {
+                canal.close();
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+        }
+    }
+
+    private void escreverLinha() throws IOException {
+        linha.append('\n');
+        CharBuffer entrada = CharBuffer.wrap(linha);
+        encoder.reset();
+        while (true) {
+            CoderResult resultado = encoder.encode(entrada, buffer, true);
+            if (resultado.isOverflow()) {
+                despejar();
+            } else if (resultado.isUnderflow()) {
+                break;
+            } else {
+                resultado.throwException();
+            }
+        }
+        linha.setLength(0);
+    }
+
+    private void despejar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void campoCsv(Object valor) {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor.toString();
+        boolean aspas = false;
+        for (int i = 0; i < texto.length() && !aspas; i++) {
+            char c = texto.charAt(i);
+            aspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!aspas) {
+            linha.append(texto);
+            return;
+        }
+        linha.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') linha.append('"');
+            linha.append(c);
+        }
+        linha.append('"');
+    }
+
+    private void campoJson(Object valor) {
+        if (valor == null) {
+            linha.append("null");
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            linha.append(valor);
+        } else {
+            textoJson(valor.toString());
+        }
+    }
+
+    private void textoJson(String texto) {
+        linha.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"' -> linha.append("\\\"");
+                case '\\' -> linha.append("\\\\");
+                case '\n' -> linha.append("\\n");
+                case '\r' -> linha.append("\\r");
+                case '\t' -> linha.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        linha.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linha.append(c);
+                    }
+                }
+            }
+        }
+        linha.append('"');
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.moicano.lojinha.exportacao;
+
+import br.com.moicano.lojinha.dao.ItemPedidoDAO;
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.Produto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exportação dos pedidos e do catálogo para arquivos (ex: a carga noturna do ERP).
+ *
+ * Gera pedidos, itens_pedido (com o nome do produto) e produtos (com o nome da
+ * categoria), em CSV ou JSON Lines, opcionalmente com gzip. As linhas vêm dos
+ * streamTodos() dos DAOs, que leem o banco por cursor, e vão direto para o
+ * arquivo (ArquivoExportacao): a memória usada é a mesma para mil ou para
+ * milhões de pedidos. Os pedidos arquivados também são exportados.
+ */
+public class Exportador {
+    private final Formato formato;
+    private final boolean gzip;
+    private final PedidoDAO pedidoDAO;
+    private final ItemPedidoDAO itemPedidoDAO;
+    private final ProdutoDAO produtoDAO;
+
+    public Exportador(Formato formato, boolean gzip) {
+        this.formato = formato;
+        this.gzip = gzip;
+        this.pedidoDAO = new PedidoDAO();
+        this.itemPedidoDAO = new ItemPedidoDAO();
+        this.produtoDAO = new ProdutoDAO();
+    }
+
+    /**
+     * Exporta tudo para o diretório (criado se não existir).
+     * @return os arquivos gerados.
+     */
+    public List<Path> exportarTudo(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        List<Path> arquivos = new ArrayList<>();
+        arquivos.add(exportarPedidos(diretorio.resolve(nomeArquivo("pedidos"))));
+        arquivos.add(exportarItensPedido(diretorio.resolve(nomeArquivo("itens_pedido"))));
+        arquivos.add(exportarProdutos(diretorio.resolve(nomeArquivo("produtos"))));
+        return arquivos;
+    }
+
+    public Path exportarPedidos(Path destino) throws IOException {
+        try (ArquivoExportacao arquivo = new ArquivoExportacao(destino, formato, gzip,
+                "id", "data", "cliente_nome", "status", "valor_total_centavos");
+             Stream<Pedido> pedidos = pedidoDAO.streamTodos()) {
+            pedidos.forEach(p -> arquivo.registro(
+                    p.getId(), p.getData(), p.getClienteNome(), p.getStatus().getDescricao(), p.getValorTotalCentavos()));
+            return concluir(arquivo, destino);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public Path exportarItensPedido(Path destino) throws IOException {
+        try (ArquivoExportacao arquivo = new ArquivoExportacao(destino, formato, gzip,
+                "id", "pedido_id", "produto_id", "produto_nome", "quantidade", "preco_unitario_centavos", "subtotal_centavos");
+             Stream<ItemPedido> itens = itemPedidoDAO.streamTodos()) {
+            itens.forEach(i -> arquivo.registro(
+                    i.getId(), i.getPedidoId(), i.getProdutoId(), i.getProdutoNome(), i.getQuantidade(),
+                    i.getPrecoUnitarioCentavos(), i.getSubtotalCentavos()));
+            return concluir(arquivo, destino);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public Path exportarProdutos(Path destino) throws IOException {
+        try (ArquivoExportacao arquivo = new ArquivoExportacao(destino, formato, gzip,
+                "id", "nome", "descricao", "dosagem", "requer_receita", "preco_centavos", "quantidade",
+                "categoria_id", "categoria_nome");
+             Stream<Produto> produtos = produtoDAO.streamTodos()) {
+            produtos.forEach(p -> arquivo.registro(
+                    p.getId(), p.getNome(), p.getDescricao(), p.getDosagem(), p.isRequerReceita(), p.getPrecoCentavos(),
+                    p.getQuantidade(), p.getCategoriaId(), p.getCategoriaNome()));
+            return concluir(arquivo, destino);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ex: "pedidos.csv" ou, com gzip, "pedidos.csv.gz"
+    private String nomeArquivo(String base) {
+        return base + "." + formato.getExtensao() + (gzip ? ".gz" : "");
+    }
+
+    private static Path concluir(ArquivoExportacao arquivo, Path destino) throws IOException {
+        arquivo.concluir();
+        System.out.println("SUCESSO: " + arquivo.getRegistros() + " registro(s) exportado(s) para " + destino);
+        return destino;
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.moicano.lojinha.exportacao;
+
+import java.util.Locale;
+
+/**
+ * Formatos de arquivo da exportação.
+ * CSV: cabeçalho + uma linha por registro (RFC 4180, separador vírgula).
+ * JSONL: um objeto JSON por linha (JSON Lines), sem cabeçalho.
+ */
+public enum Formato {
+    CSV("csv"),
+    JSONL("jsonl");
+
+    private final String extensao;
+
+    Formato(String extensao) {
+        this.extensao = extensao;
+    }
+
+    public String getExtensao() { return extensao; }
+
+    // Aceita "csv" ou "jsonl", sem diferenciar maiúsculas
+    public static Formato doNome(String nome) {
+        for (Formato formato : values()) {
+            if (formato.extensao.equals(nome.trim().toLowerCase(Locale.ROOT))) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato de exportação inválido: " + nome + " (use csv ou jsonl)");
+    }
+}
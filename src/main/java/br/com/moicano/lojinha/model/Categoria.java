@@ -12,6 +12,13 @@ public class Categoria {
         this.descricao = descricao;
     }
 
+    // Cópia: as categorias do CategoriaDAO são somente leitura, a tela edita uma cópia
+    public Categoria(Categoria outra) {
+        this.id = outra.id;
+        this.nome = outra.nome;
+        this.descricao = outra.descricao;
+    }
+
     // Getters e Setters
     public Integer getId() {
         return id;
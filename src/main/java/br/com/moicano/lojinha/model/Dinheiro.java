@@ -0,0 +1,41 @@
+package br.com.moicano.lojinha.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utilitários para valores em dinheiro.
+ *
+ * Os modelos guardam dinheiro como long em centavos (R$ 10,50 = 1050): somas e
+ * multiplicações são exatas, sem os arredondamentos do double, e não há objeto
+ * a alocar por linha. O banco guarda os mesmos centavos em colunas BIGINT.
+ */
+public final class Dinheiro {
+
+    private Dinheiro() {}
+
+    // Formata para exibição, ex: 1050 -> "10.50" (mesmo formato que as telas já usavam)
+    public static String formatar(long centavos) {
+        String sinal = centavos < 0 ? "-" : "";
+        long abs = Math.abs(centavos);
+        return sinal + (abs / 100) + "." + String.format("%02d", abs % 100);
+    }
+
+    /**
+     * Converte o texto digitado pelo usuário ("10.5", "10,50", "7") em centavos.
+     * @throws NumberFormatException se o texto não for um valor válido ou tiver mais de 2 casas.
+     */
+    public static long parse(String texto) {
+        BigDecimal valor = new BigDecimal(texto.trim().replace(',', '.'));
+        try {
+            return valor.setScale(2, RoundingMode.UNNECESSARY).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Valor inválido (use no máximo 2 casas decimais): " + texto);
+        }
+    }
+
+    // Subtotal de uma linha: preço unitário x quantidade (estoura com exceção em vez de "dar a volta")
+    public static long multiplicar(long centavos, int quantidade) {
+        return Math.multiplyExact(centavos, quantidade);
+    }
+}
@@ -6,18 +6,18 @@ public class ItemPedido {
     private Integer pedidoId;    // A qual "recibo" (Pedido) esta linha pertence
     private Integer produtoId;   // Qual "produto" é esta linha
     private Integer quantidade;  // Quantos o cliente comprou
-    private Double precoUnitario; // Qual era o preço na hora da compra
+    private long precoUnitarioCentavos; // Qual era o preço (em centavos) na hora da compra
 
     private String produtoNome;
 
     public ItemPedido() {
     }
 
-    public ItemPedido(Integer pedidoId, Integer produtoId, Integer quantidade, Double precoUnitario) {
+    public ItemPedido(Integer pedidoId, Integer produtoId, Integer quantidade, long precoUnitarioCentavos) {
         this.pedidoId = pedidoId;
         this.produtoId = produtoId;
         this.quantidade = quantidade;
-        this.precoUnitario = precoUnitario;
+        this.precoUnitarioCentavos = precoUnitarioCentavos;
     }
 
     // Getters e Setters
@@ -29,8 +29,9 @@ public class ItemPedido {
     public void setProdutoId(Integer produtoId) { this.produtoId = produtoId; }
     public Integer getQuantidade() { return quantidade; }
     public void setQuantidade(Integer quantidade) { this.quantidade = quantidade; }
-    public Double getPrecoUnitario() { return precoUnitario; }
-    public void setPrecoUnitario(Double precoUnitario) { this.precoUnitario = precoUnitario; }
+    public long getPrecoUnitarioCentavos() { return precoUnitarioCentavos; }
+    public void setPrecoUnitarioCentavos(long precoUnitarioCentavos) { this.precoUnitarioCentavos = precoUnitarioCentavos; }
+    public long getSubtotalCentavos() { return Dinheiro.multiplicar(precoUnitarioCentavos, quantidade); }
     public String getProdutoNome() { return produtoNome; }
     public void setProdutoNome(String produtoNome) { this.produtoNome = produtoNome; }
 
@@ -38,7 +39,7 @@ public class ItemPedido {
     public String toString() {
         String nome = (produtoNome != null) ? produtoNome : "ID Produto: " + produtoId;
 
-        return String.format("  - Item: %s | Qtd: %d | Preço Unit.: R$ %.2f | Subtotal: R$ %.2f",
-                nome, quantidade, precoUnitario, (quantidade * precoUnitario));
+        return String.format("  - Item: %s | Qtd: %d | Preço Unit.: R$ %s | Subtotal: R$ %s",
+                nome, quantidade, Dinheiro.formatar(precoUnitarioCentavos), Dinheiro.formatar(getSubtotalCentavos()));
     }
 }
\ No newline at end of file
@@ -6,35 +6,53 @@ public class Pedido {
 
     private Integer id;
     private LocalDateTime data;
-    private Double valorTotal;
+    private long valorTotalCentavos;
     private String clienteNome;
-    private String status; // Status para o entregador
+    private StatusPedido status; // Status para o entregador
+    private int versao; // Versão da linha no banco (controle de concorrência otimista)
+    private String chaveIdempotencia; // Enviada pelo cliente para que repetir o checkout não duplique o pedido
 
     public Pedido() {
     }
 
-    public Pedido(LocalDateTime data, Double valorTotal, String clienteNome, String status) {
+    public Pedido(LocalDateTime data, long valorTotalCentavos, String clienteNome, StatusPedido status) {
         this.data = data;
-        this.valorTotal = valorTotal;
+        this.valorTotalCentavos = valorTotalCentavos;
         this.clienteNome = clienteNome;
         this.status = status;
     }
 
+    // Cópia: cada listener do PedidoDAO recebe a sua
+    public Pedido(Pedido outro) {
+        this.id = outro.id;
+        this.data = outro.data;
+        this.valorTotalCentavos = outro.valorTotalCentavos;
+        this.clienteNome = outro.clienteNome;
+        this.status = outro.status;
+        this.versao = outro.versao;
+        this.chaveIdempotencia = outro.chaveIdempotencia;
+    }
+
     // Getters e Setters
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
     public LocalDateTime getData() { return data; }
     public void setData(LocalDateTime data) { this.data = data; }
-    public Double getValorTotal() { return valorTotal; }
-    public void setValorTotal(Double valorTotal) { this.valorTotal = valorTotal; }
+    public long getValorTotalCentavos() { return valorTotalCentavos; }
+    public void setValorTotalCentavos(long valorTotalCentavos) { this.valorTotalCentavos = valorTotalCentavos; }
     public String getClienteNome() { return clienteNome; }
     public void setClienteNome(String clienteNome) { this.clienteNome = clienteNome; }
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public StatusPedido getStatus() { return status; }
+    public void setStatus(StatusPedido status) { this.status = status; }
+    public int getVersao() { return versao; }
+    public void setVersao(int versao) { this.versao = versao; }
+    public String getChaveIdempotencia() { return chaveIdempotencia; }
+    public void setChaveIdempotencia(String chaveIdempotencia) { this.chaveIdempotencia = chaveIdempotencia; }
 
     @Override
     public String toString() {
-        return String.format("Pedido ID: %d | Status: %s | Data: %s | Cliente: %s | Valor Total: R$ %.2f",
-                id, status, data.toString(), clienteNome, valorTotal);
+        return String.format("Pedido ID: %d | Status: %s | Data: %s | Cliente: %s | Valor Total: R$ %s",
+                // Pedidos antigos podem não ter data (a FilaDespacho os lista primeiro)
+                id, status, data != null ? data : "não informada", clienteNome, Dinheiro.formatar(valorTotalCentavos));
     }
 }
\ No newline at end of file
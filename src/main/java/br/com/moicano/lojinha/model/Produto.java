@@ -4,7 +4,7 @@ public class Produto {
     private Integer id;
     private String nome;
     private String descricao;
-    private Double preco;
+    private long precoCentavos;
     private Integer quantidade;
     private Integer categoriaId;
 
@@ -14,18 +14,35 @@ public class Produto {
 
     private String categoriaNome;
 
+    // Versão da linha no banco (controle de concorrência otimista)
+    private int versao;
+
     public Produto() {}
 
-    public Produto(String nome, String descricao, Double preco, Integer quantidade, Integer categoriaId, String dosagem, boolean requerReceita) {
+    public Produto(String nome, String descricao, long precoCentavos, Integer quantidade, Integer categoriaId, String dosagem, boolean requerReceita) {
         this.nome = nome;
         this.descricao = descricao;
-        this.preco = preco;
+        this.precoCentavos = precoCentavos;
         this.quantidade = quantidade;
         this.categoriaId = categoriaId;
         this.dosagem = dosagem;
         this.requerReceita = requerReceita;
     }
 
+    // Cópia: usada pelo cache do ProdutoDAO para que quem recebe o objeto possa alterá-lo à vontade
+    public Produto(Produto outro) {
+        this.id = outro.id;
+        this.nome = outro.nome;
+        this.descricao = outro.descricao;
+        this.precoCentavos = outro.precoCentavos;
+        this.quantidade = outro.quantidade;
+        this.categoriaId = outro.categoriaId;
+        this.dosagem = outro.dosagem;
+        this.requerReceita = outro.requerReceita;
+        this.categoriaNome = outro.categoriaNome;
+        this.versao = outro.versao;
+    }
+
     // Getters e Setters
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
@@ -33,8 +50,8 @@ public class Produto {
     public void setNome(String nome) { this.nome = nome; }
     public String getDescricao() { return descricao; }
     public void setDescricao(String descricao) { this.descricao = descricao; }
-    public Double getPreco() { return preco; }
-    public void setPreco(Double preco) { this.preco = preco; }
+    public long getPrecoCentavos() { return precoCentavos; }
+    public void setPrecoCentavos(long precoCentavos) { this.precoCentavos = precoCentavos; }
     public Integer getQuantidade() { return quantidade; }
     public void setQuantidade(Integer quantidade) { this.quantidade = quantidade; }
     public Integer getCategoriaId() { return categoriaId; }
@@ -45,6 +62,8 @@ public class Produto {
     public void setDosagem(String dosagem) { this.dosagem = dosagem; }
     public boolean isRequerReceita() { return requerReceita; }
     public void setRequerReceita(boolean requerReceita) { this.requerReceita = requerReceita; }
+    public int getVersao() { return versao; }
+    public void setVersao(int versao) { this.versao = versao; }
 
     @Override
     public String toString() {
@@ -52,7 +71,7 @@ public class Produto {
         String infoDosagem = (dosagem != null && !dosagem.isEmpty()) ? String.format(" (%s)", dosagem) : "";
         String infoReceita = requerReceita ? " [Receita Obrigatória]" : "";
 
-        return String.format("ID: %d | Produto: %s%s | Preço: R$ %.2f | Estoque: %d | Categoria: %s%s",
-                id, nome, infoDosagem, preco, quantidade, categoria, infoReceita);
+        return String.format("ID: %d | Produto: %s%s | Preço: R$ %s | Estoque: %d | Categoria: %s%s",
+                id, nome, infoDosagem, Dinheiro.formatar(precoCentavos), quantidade, categoria, infoReceita);
     }
 }
\ No newline at end of file
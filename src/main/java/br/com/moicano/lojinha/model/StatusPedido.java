@@ -0,0 +1,94 @@
+package br.com.moicano.lojinha.model;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Status de um pedido e as transições permitidas entre eles:
+ * AGUARDANDO -> EM ROTA -> ENTREGUE (ou AGUARDANDO -> ENTREGUE, na retirada).
+ *
+ * No banco cada status é gravado como um código de uma letra (pedidos.status CHAR(1)).
+ */
+public enum StatusPedido {
+    AGUARDANDO('A', "AGUARDANDO"),
+    EM_ROTA('R', "EM ROTA"),
+    ENTREGUE('E', "ENTREGUE");
+
+    private static final Map<StatusPedido, Set<StatusPedido>> TRANSICOES = new EnumMap<>(StatusPedido.class);
+    static {
+        TRANSICOES.put(AGUARDANDO, EnumSet.of(EM_ROTA, ENTREGUE));
+        TRANSICOES.put(EM_ROTA, EnumSet.of(ENTREGUE));
+        TRANSICOES.put(ENTREGUE, EnumSet.noneOf(StatusPedido.class));
+    }
+
+    private final char codigo;
+    private final String descricao;
+
+    StatusPedido(char codigo, String descricao) {
+        this.codigo = codigo;
+        this.descricao = descricao;
+    }
+
+    public char getCodigo() { return codigo; }
+    public String getDescricao() { return descricao; }
+
+    // Código como é gravado na coluna pedidos.status
+    public String getCodigoSql() { return String.valueOf(codigo); }
+
+    // Ainda precisa de entregador
+    public boolean isAtivo() { return this != ENTREGUE; }
+
+    public boolean podeIrPara(StatusPedido novo) {
+        return TRANSICOES.get(this).contains(novo);
+    }
+
+    // Status dos quais se pode chegar a este (ex: ENTREGUE <- AGUARDANDO, EM ROTA)
+    public Set<StatusPedido> anteriores() {
+        Set<StatusPedido> anteriores = EnumSet.noneOf(StatusPedido.class);
+        for (Map.Entry<StatusPedido, Set<StatusPedido>> entry : TRANSICOES.entrySet()) {
+            if (entry.getValue().contains(this)) {
+                anteriores.add(entry.getKey());
+            }
+        }
+        return anteriores;
+    }
+
+    /**
+     * @throws IllegalStateException se a transição não é permitida.
+     */
+    public void validarTransicao(StatusPedido novo) {
+        if (!podeIrPara(novo)) {
+            throw new IllegalStateException("Um pedido " + descricao + " não pode passar para " + novo.descricao + ".");
+        }
+    }
+
+    public static StatusPedido doCodigo(char codigo) {
+        for (StatusPedido status : values()) {
+            if (status.codigo == codigo) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Código de status desconhecido: " + codigo);
+    }
+
+    // Aceita a descrição ("EM ROTA") ou o nome da constante ("EM_ROTA"), sem diferenciar maiúsculas
+    public static StatusPedido daDescricao(String texto) {
+        if (texto != null) {
+            String normalizado = texto.trim().toUpperCase(Locale.ROOT).replace('_', ' ');
+            for (StatusPedido status : values()) {
+                if (status.descricao.equals(normalizado)) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Status inválido: " + texto);
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
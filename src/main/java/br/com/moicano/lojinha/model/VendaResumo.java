@@ -0,0 +1,82 @@
+package br.com.moicano.lojinha.model;
+
+import java.time.LocalDate;
+
+/**
+ * Uma linha de relatório de vendas (RelatorioDAO): o total de um dia, ou de um
+ * produto ou categoria no período consultado.
+ */
+public class VendaResumo {
+    private LocalDate dia;
+    private Integer id;      // ID do produto ou da categoria (null no total por dia)
+    private String nome;
+    private long pedidos;    // só no total por dia
+    private long unidades;
+    private long receitaCentavos;
+
+    public VendaResumo() {}
+
+    public VendaResumo(LocalDate dia, Integer id, String nome, long pedidos, long unidades, long receitaCentavos) {
+        this.dia = dia;
+        this.id = id;
+        this.nome = nome;
+        this.pedidos = pedidos;
+        this.unidades = unidades;
+        this.receitaCentavos = receitaCentavos;
+    }
+
+    // Getters e Setters
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public void setDia(LocalDate dia) {
+        this.dia = dia;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public long getPedidos() {
+        return pedidos;
+    }
+
+    public void setPedidos(long pedidos) {
+        this.pedidos = pedidos;
+    }
+
+    public long getUnidades() {
+        return unidades;
+    }
+
+    public void setUnidades(long unidades) {
+        this.unidades = unidades;
+    }
+
+    public long getReceitaCentavos() {
+        return receitaCentavos;
+    }
+
+    public void setReceitaCentavos(long receitaCentavos) {
+        this.receitaCentavos = receitaCentavos;
+    }
+
+    @Override
+    public String toString() {
+        String chave = dia != null ? dia.toString() : String.format("ID: %d | %s", id, nome);
+        return String.format("%s | Unidades: %d | Receita: R$ %s", chave, unidades, Dinheiro.formatar(receitaCentavos));
+    }
+}
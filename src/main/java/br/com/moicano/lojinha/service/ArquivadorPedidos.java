@@ -0,0 +1,117 @@
+package br.com.moicano.lojinha.service;
+
+import br.com.moicano.lojinha.dao.PedidoDAO;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Arquivamento dos pedidos entregues.
+ *
+ * De tempos em tempos (lojinha.arquivo.intervaloMinutos, 60) os pedidos
+ * ENTREGUES há mais de lojinha.arquivo.idadeDias (30), contados da entrega e
+ * não da data do pedido, saem das tabelas quentes (pedidos, itens_pedido) para
+ * as de arquivo, em lotes de lojinha.arquivo.lote (500) pedidos por transação
+ * (PedidoDAO.arquivarEntregues). Assim as tabelas
+ * e índices que o checkout e os entregadores usam o tempo todo só crescem com
+ * o movimento recente, não com todo o histórico da loja.
+ *
+ * Entre um lote e outro há uma pausa curta para o checkout não disputar o
+ * banco com o arquivamento.
+ */
+public final class ArquivadorPedidos {
+    private static final long IDADE_DIAS = Long.getLong("lojinha.arquivo.idadeDias", 30);
+    private static final int TAMANHO_LOTE = Integer.getInteger("lojinha.arquivo.lote", 500);
+    private static final long INTERVALO_MINUTOS = Long.getLong("lojinha.arquivo.intervaloMinutos", 60);
+    private static final long PAUSA_ENTRE_LOTES_MS = 50;
+
+    private static volatile ArquivadorPedidos instance;
+
+    private final PedidoDAO pedidoDAO = new PedidoDAO();
+    private final ScheduledExecutorService agenda;
+    private final LongAdder arquivados = new LongAdder();
+    private volatile boolean encerrado;
+
+    private ArquivadorPedidos() {
+        this.agenda = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lojinha-arquivador-pedidos");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static ArquivadorPedidos getInstance() {
+        if (instance == null) {
+            synchronized (ArquivadorPedidos.class) {
+                if (instance == null) {
+                    instance = new ArquivadorPedidos();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Agenda o arquivamento: a primeira rodada logo depois da inicialização, as outras a cada intervalo
+    public void iniciar() {
+        agenda.scheduleWithFixedDelay(this::executar, 1, TimeUnit.MINUTES.toSeconds(INTERVALO_MINUTOS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Arquiva agora, lote a lote, todos os pedidos que já passaram da idade.
+     * @return quantos pedidos foram arquivados nesta rodada.
+     */
+    public int arquivarAgora() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(IDADE_DIAS);
+        int total = 0;
+        while (!encerrado) {
+            int lote = pedidoDAO.arquivarEntregues(limite, TAMANHO_LOTE);
+            total += lote;
+            arquivados.add(lote);
+            if (lote < TAMANHO_LOTE) {
+                break;
+            }
+            try {
+                Thread.sleep(PAUSA_ENTRE_LOTES_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Para o arquivamento, esperando o lote em andamento terminar (ex: no
+     * encerramento da aplicação, antes de fechar o pool de conexões).
+     */
+    public void parar(long timeoutMs) {
+        encerrado = true;
+        // shutdown e não shutdownNow: interromper no meio de uma escrita faria o H2 fechar o arquivo do banco
+        agenda.shutdown();
+        try {
+            agenda.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Pedidos arquivados desde o início da aplicação
+    public long totalArquivados() {
+        return arquivados.sum();
+    }
+
+    private void executar() {
+        try {
+            int total = arquivarAgora();
+            if (total > 0) {
+                System.out.println("SUCESSO: " + total + " pedido(s) entregue(s) arquivado(s).");
+            }
+        } catch (RuntimeException e) {
+            // Não deixa a exceção cancelar as próximas rodadas agendadas
+            System.err.println("ERRO: Falha ao arquivar pedidos: " + e.getMessage());
+        }
+    }
+}
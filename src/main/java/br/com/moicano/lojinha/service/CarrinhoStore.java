@@ -0,0 +1,301 @@
+package br.com.moicano.lojinha.service;
+
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Produto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Carrinhos de compra de todos os clientes, por sessão.
+ *
+ * Cada carrinho tem seu próprio lock, então clientes diferentes nunca se
+ * esperam; as linhas ficam num mapa por produto (adicionar o mesmo produto de
+ * novo soma a quantidade na linha existente). Todo item adicionado reserva
+ * estoque (ReservaEstoque); o checkout confirma as reservas e remover um item,
+ * esvaziar ou deixar o carrinho expirar as libera. Cada uso do carrinho renova
+ * as reservas dele até a próxima expiração possível do carrinho, então elas não
+ * vencem (lojinha.reserva.ttlMs, 15 min) enquanto o carrinho ainda vale.
+ *
+ * A memória é limitada: carrinhos parados há mais de lojinha.carrinho.expiracaoMinutos
+ * (30) são descartados, e há teto de carrinhos abertos (lojinha.carrinho.maxCarrinhos,
+ * 10000), de linhas por carrinho (50) e de unidades por linha (1000).
+ */
+public class CarrinhoStore {
+    private static final long EXPIRACAO_MS = TimeUnit.MINUTES.toMillis(Long.getLong("lojinha.carrinho.expiracaoMinutos", 30));
+    private static final int MAX_CARRINHOS = Integer.getInteger("lojinha.carrinho.maxCarrinhos", 10_000);
+    public static final int MAX_ITENS = 50;
+    public static final int MAX_QUANTIDADE_POR_ITEM = 1_000;
+    private static final long INTERVALO_LIMPEZA_MS = 60_000;
+
+    private static volatile CarrinhoStore instance;
+
+    private final Map<String, Carrinho> carrinhos = new ConcurrentHashMap<>();
+    private final ProdutoDAO produtoDAO;
+    private final ReservaEstoque reservaEstoque;
+    private final CheckoutService checkoutService;
+    private final ScheduledExecutorService limpeza;
+
+    private CarrinhoStore() {
+        this.produtoDAO = new ProdutoDAO();
+        this.reservaEstoque = ReservaEstoque.getInstance();
+        this.checkoutService = new CheckoutService();
+        this.limpeza = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lojinha-carrinhos-limpeza");
+            t.setDaemon(true);
+            return t;
+        });
+        limpeza.scheduleWithFixedDelay(this::descartarExpirados, INTERVALO_LIMPEZA_MS, INTERVALO_LIMPEZA_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static CarrinhoStore getInstance() {
+        if (instance == null) {
+            synchronized (CarrinhoStore.class) {
+                if (instance == null) {
+                    instance = new CarrinhoStore();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Abre um carrinho vazio.
+     * @return o ID da sessão do carrinho (usado em todas as outras operações).
+     * @throws ServicoIndisponivelException se o limite de carrinhos abertos foi atingido.
+     */
+    public String criar() {
+        if (carrinhos.size() >= MAX_CARRINHOS) {
+            descartarExpirados();
+            if (carrinhos.size() >= MAX_CARRINHOS) {
+                throw new ServicoIndisponivelException("Limite de carrinhos abertos atingido, tente novamente mais tarde.");
+            }
+        }
+        String sessao = UUID.randomUUID().toString();
+        carrinhos.put(sessao, new Carrinho());
+        return sessao;
+    }
+
+    /**
+     * Adiciona (ou soma, se o produto já está no carrinho) e reserva o estoque.
+     * @return a linha do produto depois da alteração.
+     * @throws NoSuchElementException se o carrinho não existe ou expirou.
+     * @throws IllegalStateException se não há estoque disponível ou o carrinho está cheio.
+     */
+    public ItemPedido adicionar(String sessao, int produtoId, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade inválida: " + quantidade);
+        }
+        Produto produto = produtoDAO.buscarPorId(produtoId);
+        if (produto == null) {
+            throw new IllegalArgumentException("Produto não encontrado: " + produtoId);
+        }
+
+        Carrinho carrinho = travar(sessao);
+        try {
+            Linha linha = carrinho.linhas.get(produtoId);
+            if (linha == null && carrinho.linhas.size() >= MAX_ITENS) {
+                throw new IllegalStateException("O carrinho já tem o máximo de " + MAX_ITENS + " produtos diferentes.");
+            }
+            int total = (linha != null ? linha.item.getQuantidade() : 0) + quantidade;
+            if (total > MAX_QUANTIDADE_POR_ITEM) {
+                throw new IllegalStateException("Máximo de " + MAX_QUANTIDADE_POR_ITEM + " unidades por produto.");
+            }
+
+            String reservaId = reservaEstoque.reservar(produtoId, quantidade);
+            if (linha == null) {
+                ItemPedido item = new ItemPedido(null, produtoId, 0, produto.getPrecoCentavos());
+                item.setProdutoNome(produto.getNome());
+                linha = new Linha(item);
+                carrinho.linhas.put(produtoId, linha);
+            }
+            linha.item.setQuantidade(total);
+            // Vale o preço de agora, como se o item inteiro fosse colocado de novo
+            linha.item.setPrecoUnitarioCentavos(produto.getPrecoCentavos());
+            linha.reservas.add(reservaId);
+            return copiar(linha.item);
+        } finally {
+            destravar(carrinho);
+        }
+    }
+
+    // Tira o produto do carrinho e libera o estoque reservado para ele
+    public void remover(String sessao, int produtoId) {
+        Carrinho carrinho = travar(sessao);
+        try {
+            Linha linha = carrinho.linhas.remove(produtoId);
+            if (linha != null) {
+                reservaEstoque.liberar(linha.reservas);
+            }
+        } finally {
+            destravar(carrinho);
+        }
+    }
+
+    public void esvaziar(String sessao) {
+        Carrinho carrinho = travar(sessao);
+        try {
+            liberarTudo(carrinho);
+        } finally {
+            destravar(carrinho);
+        }
+    }
+
+    // Cópia das linhas, na ordem em que os produtos entraram
+    public List<ItemPedido> itens(String sessao) {
+        Carrinho carrinho = travar(sessao);
+        try {
+            List<ItemPedido> itens = new ArrayList<>(carrinho.linhas.size());
+            for (Linha linha : carrinho.linhas.values()) {
+                itens.add(copiar(linha.item));
+            }
+            return itens;
+        } finally {
+            destravar(carrinho);
+        }
+    }
+
+    /**
+     * Fecha a compra do carrinho (ver CheckoutService). Com sucesso, o carrinho
+     * deixa de existir; se falhar, continua como estava.
+     * A sessão serve de chave de idempotência: repetir o checkout de um carrinho
+     * já fechado devolve o mesmo pedido.
+     * @return o ID do pedido criado.
+     */
+    public Integer finalizar(String sessao, String clienteNome) {
+        Carrinho carrinho;
+        try {
+            carrinho = travar(sessao);
+        } catch (NoSuchElementException e) {
+            Integer pedidoId = sessao != null ? checkoutService.pedidoDaChave(sessao) : null;
+            if (pedidoId != null) {
+                return pedidoId;
+            }
+            throw e;
+        }
+        try {
+            List<ItemPedido> itens = new ArrayList<>(carrinho.linhas.size());
+            List<String> reservas = new ArrayList<>();
+            for (Linha linha : carrinho.linhas.values()) {
+                itens.add(copiar(linha.item));
+                reservas.addAll(linha.reservas);
+            }
+
+            Integer pedidoId = checkoutService.finalizarCompra(clienteNome, itens, reservas, sessao);
+
+            carrinho.linhas.clear();
+            carrinho.fechado = true;
+            carrinhos.remove(sessao, carrinho);
+            return pedidoId;
+        } finally {
+            destravar(carrinho);
+        }
+    }
+
+    // Encerra a sessão sem comprar (ex: cliente saiu da loja)
+    public void descartar(String sessao) {
+        Carrinho carrinho = carrinhos.get(sessao);
+        if (carrinho == null) {
+            return;
+        }
+        carrinho.lock.lock();
+        try {
+            fechar(sessao, carrinho);
+        } finally {
+            carrinho.lock.unlock();
+        }
+    }
+
+    public int quantidadeCarrinhos() {
+        return carrinhos.size();
+    }
+
+    // Pega o lock do carrinho; um carrinho fechado enquanto esperávamos conta como inexistente
+    private Carrinho travar(String sessao) {
+        Carrinho carrinho = sessao != null ? carrinhos.get(sessao) : null;
+        if (carrinho != null) {
+            carrinho.lock.lock();
+            if (!carrinho.fechado) {
+                return carrinho;
+            }
+            carrinho.lock.unlock();
+        }
+        throw new NoSuchElementException("Carrinho não encontrado ou expirado: " + sessao);
+    }
+
+    private void destravar(Carrinho carrinho) {
+        try {
+            carrinho.ultimoAcesso = System.currentTimeMillis();
+            // A limpeza passa a cada INTERVALO_LIMPEZA_MS: o carrinho pode durar até isso além da expiração
+            for (Linha linha : carrinho.linhas.values()) {
+                reservaEstoque.renovar(linha.reservas, EXPIRACAO_MS + INTERVALO_LIMPEZA_MS);
+            }
+        } finally {
+            carrinho.lock.unlock();
+        }
+    }
+
+    private void liberarTudo(Carrinho carrinho) {
+        for (Linha linha : carrinho.linhas.values()) {
+            reservaEstoque.liberar(linha.reservas);
+        }
+        carrinho.linhas.clear();
+    }
+
+    private void fechar(String sessao, Carrinho carrinho) {
+        if (!carrinho.fechado) {
+            liberarTudo(carrinho);
+            carrinho.fechado = true;
+            carrinhos.remove(sessao, carrinho);
+        }
+    }
+
+    private void descartarExpirados() {
+        long limite = System.currentTimeMillis() - EXPIRACAO_MS;
+        carrinhos.forEach((sessao, carrinho) -> {
+            // tryLock: um carrinho em uso agora não está parado, então não espera por ele
+            if (carrinho.ultimoAcesso < limite && carrinho.lock.tryLock()) {
+                try {
+                    if (carrinho.ultimoAcesso < limite) {
+                        fechar(sessao, carrinho);
+                    }
+                } finally {
+                    carrinho.lock.unlock();
+                }
+            }
+        });
+    }
+
+    private static ItemPedido copiar(ItemPedido item) {
+        ItemPedido copia = new ItemPedido(null, item.getProdutoId(), item.getQuantidade(), item.getPrecoUnitarioCentavos());
+        copia.setProdutoNome(item.getProdutoNome());
+        return copia;
+    }
+
+    private static final class Carrinho {
+        private final ReentrantLock lock = new ReentrantLock();
+        // produtoId -> linha; LinkedHashMap mantém a ordem em que os produtos entraram
+        private final Map<Integer, Linha> linhas = new LinkedHashMap<>();
+        private volatile long ultimoAcesso = System.currentTimeMillis();
+        private boolean fechado;
+    }
+
+    private static final class Linha {
+        private final ItemPedido item;
+        private final List<String> reservas = new ArrayList<>();
+
+        private Linha(ItemPedido item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package br.com.moicano.lojinha.service;
+
+import br.com.moicano.lojinha.cache.TtlLruCache;
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.StatusPedido;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serviço de Checkout (Finalizar Compra).
+ *
+ * Cada pedido é gravado numa única transação:
+ * 1. baixa de estoque condicional (quantidade = quantidade - ?), em lote;
+ * 2. INSERT do pedido (recibo);
+ * 3. INSERT de todos os itens com um único executeBatch.
+ *
+ * O número de round trips não cresce com o tamanho do carrinho e, se faltar
+ * estoque de qualquer produto, nada do pedido é gravado.
+ *
+ * Quem grava é o GravadorPedidos, que junta os pedidos que chegam ao mesmo
+ * tempo num só commit; com -Dlojinha.checkout.emGrupo=false cada pedido é
+ * gravado sozinho, na thread de quem chamou.
+ *
+ * As reservas feitas quando os itens entraram no carrinho (ReservaEstoque) são
+ * conferidas contra os itens antes da gravação e confirmadas só depois do commit.
+ *
+ * Com uma chave de idempotência, repetir o checkout (timeout, clique duplo)
+ * devolve o pedido original: a chave é procurada nas chaves recentes, depois
+ * nas gravações em andamento e só então no banco, onde um índice único
+ * garante que ela nunca entra duas vezes.
+ */
+public class CheckoutService {
+    public static final StatusPedido STATUS_INICIAL = StatusPedido.AGUARDANDO;
+    private static final boolean EM_GRUPO = Boolean.parseBoolean(System.getProperty("lojinha.checkout.emGrupo", "true"));
+    private static final int TAMANHO_MAXIMO_CHAVE = 64;
+    // Código SQL de violação de restrição única
+    private static final String VIOLACAO_UNICA = "23505";
+
+    // Compartilhados por todas as instâncias: chave -> ID do pedido já gravado...
+    private static final TtlLruCache<String, Integer> chavesRecentes =
+            new TtlLruCache<>(10_000, 24, TimeUnit.HOURS);
+    // ...e chave -> gravação ainda na fila (a repetição espera pelo mesmo pedido)
+    private static final Map<String, CompletableFuture<Integer>> emAndamento = new ConcurrentHashMap<>();
+
+    private final GravadorPedidos gravadorPedidos;
+    private final ReservaEstoque reservaEstoque;
+    private final PedidoDAO pedidoDAO;
+
+    public CheckoutService() {
+        this.gravadorPedidos = GravadorPedidos.getInstance();
+        this.reservaEstoque = ReservaEstoque.getInstance();
+        this.pedidoDAO = new PedidoDAO();
+    }
+
+    /**
+     * Finaliza a compra dos itens do carrinho.
+     * @return o ID do pedido criado.
+     * @throws IllegalStateException se faltar estoque (nada é gravado).
+     * @throws RuntimeException se o banco falhar (nada é gravado).
+     */
+    public Integer finalizarCompra(String clienteNome, List<ItemPedido> itens) {
+        return finalizarCompra(clienteNome, itens, List.of());
+    }
+
+    /**
+     * Finaliza a compra e confirma as reservas de estoque do carrinho.
+     * Se a compra falhar, as reservas continuam valendo (o cliente pode tentar de novo).
+     * @throws IllegalArgumentException se uma reserva não for de um produto do pedido,
+     *         ou segurar mais do que a quantidade comprada.
+     */
+    public Integer finalizarCompra(String clienteNome, List<ItemPedido> itens, Collection<String> reservas) {
+        return finalizarCompra(clienteNome, itens, reservas, null);
+    }
+
+    /**
+     * Finaliza a compra de forma idempotente: se já existe pedido com a chave,
+     * devolve o ID dele sem gravar nada (nem baixar estoque de novo) e libera
+     * as reservas informadas.
+     * @param chaveIdempotencia até 64 caracteres, ou null para sempre criar um pedido novo.
+     */
+    public Integer finalizarCompra(String clienteNome, List<ItemPedido> itens, Collection<String> reservas,
+                                   String chaveIdempotencia) {
+        try {
+            return finalizarCompraAsync(clienteNome, itens, reservas, chaveIdempotencia).join();
+        } catch (CompletionException e) {
+            // Devolve a exceção original (ex: IllegalStateException de estoque) a quem chamou
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Versão assíncrona: valida o carrinho agora e devolve o ID do pedido quando
+     * ele for gravado (ou o do pedido original, se a chave já foi usada).
+     * Falhas (estoque, banco) chegam pelo CompletableFuture.
+     * @throws IllegalArgumentException se o carrinho estiver vazio, a chave for inválida
+     *         ou as reservas não corresponderem aos itens.
+     */
+    public CompletableFuture<Integer> finalizarCompraAsync(String clienteNome, List<ItemPedido> itens, Collection<String> reservas,
+                                                           String chaveIdempotencia) {
+        if (chaveIdempotencia == null) {
+            return gravar(clienteNome, itens, reservas, null);
+        }
+        if (chaveIdempotencia.isBlank() || chaveIdempotencia.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException("Chave de idempotência deve ter de 1 a " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+
+        // Numa repetição nada é gravado: as reservas que vieram com ela são devolvidas
+        // (as que já foram confirmadas pelo pedido original não existem mais)
+        Integer anterior = chavesRecentes.get(chaveIdempotencia);
+        if (anterior != null) {
+            reservaEstoque.liberar(reservas);
+            return CompletableFuture.completedFuture(anterior);
+        }
+        CompletableFuture<Integer> resultado = new CompletableFuture<>();
+        CompletableFuture<Integer> emCurso = emAndamento.putIfAbsent(chaveIdempotencia, resultado);
+        if (emCurso != null) {
+            // Só depois do commit do original, para não soltar antes da hora o que ele vai confirmar
+            return emCurso.whenComplete((pedidoId, erro) -> {
+                if (erro == null) {
+                    reservaEstoque.liberar(reservas);
+                }
+            });
+        }
+
+        try {
+            Integer gravado = pedidoDAO.buscarIdPorChave(chaveIdempotencia);
+            if (gravado != null) {
+                reservaEstoque.liberar(reservas);
+            }
+            CompletableFuture<Integer> gravacao = gravado != null
+                    ? CompletableFuture.completedFuture(gravado)
+                    : gravar(clienteNome, itens, reservas, chaveIdempotencia);
+            gravacao.whenComplete((pedidoId, erro) -> concluir(chaveIdempotencia, reservas, resultado, pedidoId, erro));
+        } catch (RuntimeException e) {
+            emAndamento.remove(chaveIdempotencia, resultado);
+            throw e;
+        }
+        return resultado;
+    }
+
+    // ID do pedido já gravado com a chave, ou null
+    public Integer pedidoDaChave(String chaveIdempotencia) {
+        Integer pedidoId = chavesRecentes.get(chaveIdempotencia);
+        if (pedidoId == null) {
+            pedidoId = pedidoDAO.buscarIdPorChave(chaveIdempotencia);
+            if (pedidoId != null) {
+                chavesRecentes.put(chaveIdempotencia, pedidoId);
+            }
+        }
+        return pedidoId;
+    }
+
+    private CompletableFuture<Integer> gravar(String clienteNome, List<ItemPedido> itens, Collection<String> reservas,
+                                              String chaveIdempotencia) {
+        if (itens == null || itens.isEmpty()) {
+            throw new IllegalArgumentException("O carrinho está vazio.");
+        }
+
+        long valorTotalCentavos = 0;
+        // Soma as quantidades por produto (o mesmo produto pode aparecer em mais de uma linha)
+        SortedMap<Integer, Integer> quantidades = new TreeMap<>();
+        for (ItemPedido item : itens) {
+            valorTotalCentavos = Math.addExact(valorTotalCentavos, item.getSubtotalCentavos());
+            quantidades.merge(item.getProdutoId(), item.getQuantidade(), Integer::sum);
+        }
+        reservaEstoque.validar(reservas, quantidades);
+
+        Pedido pedido = new Pedido(LocalDateTime.now(), valorTotalCentavos, clienteNome, STATUS_INICIAL);
+        pedido.setChaveIdempotencia(chaveIdempotencia);
+
+        return EM_GRUPO
+                ? gravadorPedidos.enviar(pedido, itens, quantidades, reservas)
+                : gravadorPedidos.gravarAgora(pedido, itens, quantidades, reservas);
+    }
+
+    private void concluir(String chave, Collection<String> reservas, CompletableFuture<Integer> resultado,
+                          Integer pedidoId, Throwable erro) {
+        try {
+            if (erro == null) {
+                chavesRecentes.put(chave, pedidoId);
+            } else if (violouChaveUnica(erro)) {
+                // Outra gravação com a mesma chave chegou ao banco primeiro (ex: outra instância da loja)
+                pedidoId = pedidoDAO.buscarIdPorChave(chave);
+                if (pedidoId != null) {
+                    chavesRecentes.put(chave, pedidoId);
+                    reservaEstoque.liberar(reservas);
+                    erro = null;
+                }
+            }
+        } catch (RuntimeException e) {
+            erro = e;
+        } finally {
+            emAndamento.remove(chave, resultado);
+        }
+        if (erro == null) {
+            resultado.complete(pedidoId);
+        } else {
+            resultado.completeExceptionally(erro instanceof CompletionException ? erro.getCause() : erro);
+        }
+    }
+
+    private static boolean violouChaveUnica(Throwable erro) {
+        for (Throwable t = erro; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && VIOLACAO_UNICA.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.moicano.lojinha.service;
+
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.dao.PedidoListener;
+import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.StatusPedido;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Fila de despacho: os pedidos ativos em memória, para os entregadores não
+ * consultarem a tabela de pedidos a cada atualização da tela.
+ *
+ * Os pedidos AGUARDANDO ficam numa fila do mais antigo para o mais novo, na
+ * frente dos que já estão EM ROTA. Pegar o próximo pedido é um pollFirst() no
+ * ConcurrentSkipListSet (O(log n)), que entrega cada pedido a um único
+ * entregador mesmo com vários pedindo ao mesmo tempo; só então o status é
+ * gravado no banco (PedidoDAO.transicionar, condicionado a AGUARDANDO).
+ *
+ * A fila é montada do banco na inicialização (reconstruir) e depois acompanha
+ * o PedidoDAO: pedidos criados entram, mudanças de status mudam o pedido de
+ * lugar e os ENTREGUES saem.
+ */
+public class FilaDespacho implements PedidoListener {
+    private static final Comparator<Entrada> POR_IDADE = Comparator
+            .comparing(Entrada::data, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparingInt(Entrada::id);
+
+    private static volatile FilaDespacho instance;
+
+    private final PedidoDAO pedidoDAO;
+    private final NavigableSet<Entrada> aguardando = new ConcurrentSkipListSet<>(POR_IDADE);
+    private final NavigableSet<Entrada> emRota = new ConcurrentSkipListSet<>(POR_IDADE);
+    // pedidoId -> entrada atual (é por aqui que cada mudança de status acha o pedido)
+    private final Map<Integer, Entrada> porId = new ConcurrentHashMap<>();
+
+    private FilaDespacho(PedidoDAO pedidoDAO) {
+        this.pedidoDAO = pedidoDAO;
+    }
+
+    public static FilaDespacho getInstance() {
+        if (instance == null) {
+            synchronized (FilaDespacho.class) {
+                if (instance == null) {
+                    FilaDespacho fila = new FilaDespacho(new PedidoDAO());
+                    PedidoDAO.adicionarListener(fila);
+                    instance = fila;
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Carrega os pedidos ativos do banco (na inicialização da aplicação)
+    public void reconstruir(PedidoDAO dao) {
+        List<Pedido> ativos = dao.buscarPedidosAtivos();
+        for (Pedido pedido : ativos) {
+            pedidoSalvo(pedido);
+        }
+        System.out.println("SUCESSO: Fila de despacho montada com " + porId.size() + " pedido(s) ativo(s).");
+    }
+
+    /**
+     * Entrega o pedido AGUARDANDO mais antigo a quem chamou e o marca EM ROTA.
+     * @return o pedido já EM ROTA, ou null se não há pedido esperando.
+     */
+    public Pedido pegarProximo() {
+        while (true) {
+            Entrada entrada = aguardando.pollFirst();
+            if (entrada == null) {
+                return null;
+            }
+            // A partir daqui o pedido é só nosso: nenhum outro pollFirst o devolve
+            try {
+                return pedidoDAO.transicionar(entrada.id(), StatusPedido.EM_ROTA);
+            } catch (IllegalStateException e) {
+                // Alguém mudou o pedido por fora da fila (ex: pelo ID): acerta a fila e tenta o próximo
+                Pedido atual = pedidoDAO.buscarPorId(entrada.id());
+                if (atual == null) {
+                    porId.remove(entrada.id(), entrada);
+                } else {
+                    pedidoSalvo(atual);
+                }
+            } catch (NoSuchElementException e) {
+                porId.remove(entrada.id(), entrada);
+            } catch (RuntimeException e) {
+                devolver(entrada);
+                throw e;
+            }
+        }
+    }
+
+    // Pedidos ativos na ordem de despacho: primeiro os que esperam (mais antigo antes), depois os em rota
+    public List<Pedido> ativos() {
+        List<Pedido> pedidos = new ArrayList<>();
+        for (Entrada entrada : aguardando) {
+            pedidos.add(entrada.paraPedido());
+        }
+        for (Entrada entrada : emRota) {
+            pedidos.add(entrada.paraPedido());
+        }
+        return pedidos;
+    }
+
+    // Próximo pedido a ser despachado, sem pegá-lo
+    public Pedido proximo() {
+        // Iterator em vez de first(): first() lança exceção se a fila esvaziar entre as duas chamadas
+        Iterator<Entrada> it = aguardando.iterator();
+        return it.hasNext() ? it.next().paraPedido() : null;
+    }
+
+    public int tamanho() {
+        return porId.size();
+    }
+
+    @Override
+    public void pedidoSalvo(Pedido pedido) {
+        Entrada nova = Entrada.de(pedido);
+        porId.compute(pedido.getId(), (id, antiga) -> {
+            // Avisos podem chegar fora de ordem: uma versão mais velha não desfaz uma mais nova
+            if (antiga != null && antiga.versao() > nova.versao()) {
+                return antiga;
+            }
+            NavigableSet<Entrada> origem = antiga != null ? filaDo(antiga.status()) : null;
+            if (origem != null) {
+                origem.remove(antiga);
+            }
+            NavigableSet<Entrada> destino = filaDo(nova.status());
+            if (destino == null) {
+                return null; // Entregue (ou qualquer status fora da entrega): sai da fila
+            }
+            destino.add(nova);
+            return nova;
+        });
+    }
+
+    // Falha ao gravar depois do pollFirst: o pedido volta ao seu lugar, se ninguém o mudou nesse meio tempo
+    private void devolver(Entrada entrada) {
+        porId.computeIfPresent(entrada.id(), (id, atual) -> {
+            if (atual == entrada) {
+                aguardando.add(entrada);
+            }
+            return atual;
+        });
+    }
+
+    private NavigableSet<Entrada> filaDo(StatusPedido status) {
+        return switch (status) {
+            case AGUARDANDO -> aguardando;
+            case EM_ROTA -> emRota;
+            case ENTREGUE -> null;
+        };
+    }
+
+    private record Entrada(int id, LocalDateTime data, long valorTotalCentavos, String clienteNome,
+                           StatusPedido status, int versao) {
+
+        static Entrada de(Pedido pedido) {
+            return new Entrada(pedido.getId(), pedido.getData(), pedido.getValorTotalCentavos(),
+                    pedido.getClienteNome(), pedido.getStatus(), pedido.getVersao());
+        }
+
+        Pedido paraPedido() {
+            Pedido pedido = new Pedido(data, valorTotalCentavos, clienteNome, status);
+            pedido.setId(id);
+            pedido.setVersao(versao);
+            return pedido;
+        }
+    }
+}
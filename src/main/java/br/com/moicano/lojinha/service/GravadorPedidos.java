@@ -0,0 +1,305 @@
+package br.com.moicano.lojinha.service;
+
+import br.com.moicano.lojinha.dao.ItemPedidoDAO;
+import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.dao.RelatorioDAO;
+import br.com.moicano.lojinha.database.DatabaseConnection;
+import br.com.moicano.lojinha.model.ItemPedido;
+import br.com.moicano.lojinha.model.Pedido;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Gravação de pedidos em grupo ("group commit").
+ *
+ * O checkout não grava mais sozinho: ele entrega o pedido numa fila limitada e
+ * recebe um CompletableFuture com o ID. Uma única thread junta os pedidos que
+ * chegaram (até lojinha.pedidos.lote, ou até o mais antigo esperar
+ * lojinha.pedidos.latenciaMaxMs) e grava o grupo inteiro numa transação:
+ * baixa de estoque de cada pedido, um executeBatch para os pedidos (com os IDs
+ * gerados devolvidos a cada um) e outro para todos os itens. São N pedidos por
+ * commit em vez de um commit (e uma escrita no disco) por pedido.
+ *
+ * Cada pedido tem seu savepoint: se faltar estoque para um, só ele é recusado.
+ * Se o grupo inteiro falhar no banco, os pedidos são regravados um a um, para
+ * que um pedido com problema não derrube os outros.
+ *
+ * Na mesma transação os agregados de vendas (RelatorioDAO) recebem o grupo,
+ * então os relatórios nunca contam um pedido que não foi gravado.
+ */
+public final class GravadorPedidos {
+    private static final int CAPACIDADE_FILA = Integer.getInteger("lojinha.pedidos.fila", 1_024);
+    private static final int TAMANHO_LOTE = Integer.getInteger("lojinha.pedidos.lote", 64);
+    private static final long LATENCIA_MAXIMA_NS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("lojinha.pedidos.latenciaMaxMs", 2));
+    // Quanto quem chama espera por uma vaga na fila antes de desistir
+    private static final long ESPERA_FILA_MS = 1_000;
+
+    private static volatile GravadorPedidos instance;
+
+    private final BlockingQueue<PedidoPendente> fila = new ArrayBlockingQueue<>(CAPACIDADE_FILA);
+    private final PedidoDAO pedidoDAO = new PedidoDAO();
+    private final ItemPedidoDAO itemPedidoDAO = new ItemPedidoDAO();
+    private final ProdutoDAO produtoDAO = new ProdutoDAO();
+    private final RelatorioDAO relatorioDAO = new RelatorioDAO();
+    private final ReservaEstoque reservaEstoque = ReservaEstoque.getInstance();
+    private final Thread gravador;
+    private volatile boolean encerrado;
+    // Gravações (leitura: várias ao mesmo tempo) x reconstrução dos agregados de vendas (escrita: sozinha)
+    private final ReadWriteLock agregados = new ReentrantReadWriteLock();
+
+    private final LongAdder grupos = new LongAdder();
+    private final LongAdder pedidos = new LongAdder();
+
+    private GravadorPedidos() {
+        this.gravador = new Thread(this::executar, "lojinha-gravador-pedidos");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    public static GravadorPedidos getInstance() {
+        if (instance == null) {
+            synchronized (GravadorPedidos.class) {
+                if (instance == null) {
+                    instance = new GravadorPedidos();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Põe o pedido na fila do próximo grupo.
+     * @return o ID do pedido quando o grupo dele for gravado; falha com
+     *         IllegalStateException se faltar estoque.
+     * @throws ServicoIndisponivelException se a loja está sendo encerrada ou a fila continuar
+     *         cheia por {@value #ESPERA_FILA_MS} ms.
+     */
+    CompletableFuture<Integer> enviar(Pedido pedido, List<ItemPedido> itens, SortedMap<Integer, Integer> quantidades,
+                                      Collection<String> reservas) {
+        if (encerrado) {
+            throw new ServicoIndisponivelException("A loja está sendo encerrada, tente novamente.");
+        }
+        PedidoPendente pendente = new PedidoPendente(pedido, itens, quantidades, reservas);
+        try {
+            if (!fila.offer(pendente, ESPERA_FILA_MS, TimeUnit.MILLISECONDS)) {
+                throw new ServicoIndisponivelException("Muitos pedidos ao mesmo tempo, tente novamente.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pedido cancelado.", e);
+        }
+        return pendente.resultado;
+    }
+
+    // Grava na thread de quem chama, sem fila (lojinha.checkout.emGrupo=false)
+    CompletableFuture<Integer> gravarAgora(Pedido pedido, List<ItemPedido> itens, SortedMap<Integer, Integer> quantidades,
+                                           Collection<String> reservas) {
+        PedidoPendente pendente = new PedidoPendente(pedido, itens, quantidades, reservas);
+        gravar(List.of(pendente));
+        return pendente.resultado;
+    }
+
+    /**
+     * Para de aceitar pedidos e espera a fila esvaziar (ex: no encerramento da
+     * aplicação, antes de fechar o pool de conexões).
+     */
+    public void parar(long timeoutMs) {
+        encerrado = true;
+        try {
+            gravador.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PedidoPendente sobra;
+        while ((sobra = fila.poll()) != null) {
+            sobra.resultado.completeExceptionally(new ServicoIndisponivelException("A loja foi encerrada antes de gravar o pedido."));
+        }
+    }
+
+    /**
+     * Recalcula os agregados de vendas a partir do histórico (RelatorioDAO.reconstruir)
+     * esperando as gravações em andamento e segurando as novas até terminar, para
+     * que nenhum pedido fique de fora ou seja contado duas vezes.
+     * @return quantos dias com vendas foram recalculados.
+     */
+    public int reconstruirRelatorios() {
+        Lock escrita = agregados.writeLock();
+        escrita.lock();
+        try {
+            return relatorioDAO.reconstruir();
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // Média de pedidos por commit desde o início (1.0 = nenhum agrupamento)
+    public double mediaPorGrupo() {
+        long total = grupos.sum();
+        return total == 0 ? 0 : (double) pedidos.sum() / total;
+    }
+
+    private void executar() {
+        List<PedidoPendente> grupo = new ArrayList<>(TAMANHO_LOTE);
+        while (!encerrado || !fila.isEmpty()) {
+            try {
+                // poll com timeout (e não take) para perceber o encerramento; sem interrupt,
+                // que no meio de uma escrita faria o H2 fechar o arquivo do banco
+                PedidoPendente primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                grupo.add(primeiro);
+                long prazo = primeiro.chegada + LATENCIA_MAXIMA_NS;
+                while (grupo.size() < TAMANHO_LOTE) {
+                    if (fila.drainTo(grupo, TAMANHO_LOTE - grupo.size()) > 0) {
+                        continue;
+                    }
+                    long resta = prazo - System.nanoTime();
+                    PedidoPendente proximo = resta > 0 ? fila.poll(resta, TimeUnit.NANOSECONDS) : null;
+                    if (proximo == null) {
+                        break;
+                    }
+                    grupo.add(proximo);
+                }
+                gravar(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | Error e) {
+                // Nunca deixa a thread morrer com pedidos esperando resposta
+                System.err.println("ERRO: Falha no gravador de pedidos: " + e.getMessage());
+                for (PedidoPendente pendente : grupo) {
+                    pendente.resultado.completeExceptionally(e);
+                }
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private void gravar(List<PedidoPendente> grupo) {
+        List<PedidoPendente> aceitos = new ArrayList<>(grupo.size());
+        List<PedidoPendente> semEstoque = new ArrayList<>();
+        Set<Integer> produtosSemEstoque = new HashSet<>();
+
+        Lock leitura = agregados.readLock();
+        leitura.lock();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Baixa o estoque pedido a pedido; o savepoint desfaz só as baixas do pedido recusado
+                for (PedidoPendente pendente : grupo) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    List<Integer> faltando = produtoDAO.baixarEstoque(conn, pendente.quantidades);
+                    if (faltando.isEmpty()) {
+                        conn.releaseSavepoint(savepoint);
+                        aceitos.add(pendente);
+                    } else {
+                        conn.rollback(savepoint);
+                        pendente.semEstoque = faltando;
+                        semEstoque.add(pendente);
+                        produtosSemEstoque.addAll(faltando);
+                    }
+                }
+
+                if (!aceitos.isEmpty()) {
+                    List<Pedido> novos = new ArrayList<>(aceitos.size());
+                    List<ItemPedido> itens = new ArrayList<>();
+                    for (PedidoPendente pendente : aceitos) {
+                        novos.add(pendente.pedido);
+                    }
+                    pedidoDAO.criarEmLote(conn, novos);
+                    for (PedidoPendente pendente : aceitos) {
+                        for (ItemPedido item : pendente.itens) {
+                            item.setPedidoId(pendente.pedido.getId());
+                            itens.add(item);
+                        }
+                    }
+                    itemPedidoDAO.criarEmLote(conn, itens);
+                    relatorioDAO.registrarVendas(conn, novos, itens);
+                }
+
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (grupo.size() > 1) {
+                for (PedidoPendente pendente : grupo) {
+                    gravar(List.of(pendente));
+                }
+            } else {
+                grupo.get(0).resultado.completeExceptionally(e instanceof SQLException
+                        ? new RuntimeException("Erro ao finalizar compra: " + e.getMessage(), e)
+                        : e);
+            }
+            return;
+        } finally {
+            leitura.unlock();
+        }
+
+        grupos.increment();
+        pedidos.add(aceitos.size());
+
+        Set<Integer> vendidos = new HashSet<>();
+        for (PedidoPendente pendente : aceitos) {
+            vendidos.addAll(pendente.quantidades.keySet());
+        }
+        // O estoque desses produtos mudou: o cache do catálogo não vale mais para eles
+        produtoDAO.invalidarCache(vendidos);
+        List<Pedido> criados = new ArrayList<>(aceitos.size());
+        for (PedidoPendente pendente : aceitos) {
+            reservaEstoque.confirmar(pendente.reservas, pendente.quantidades);
+            criados.add(pendente.pedido);
+        }
+        pedidoDAO.avisarCriados(criados);
+        for (PedidoPendente pendente : aceitos) {
+            pendente.resultado.complete(pendente.pedido.getId());
+        }
+
+        if (!semEstoque.isEmpty()) {
+            // O livro de reservas achava que havia estoque: acerta-o com o banco
+            reservaEstoque.sincronizar(produtosSemEstoque);
+            for (PedidoPendente pendente : semEstoque) {
+                pendente.resultado.completeExceptionally(
+                        new IllegalStateException("Estoque insuficiente para o(s) produto(s) ID " + pendente.semEstoque));
+            }
+        }
+    }
+
+    private static final class PedidoPendente {
+        private final Pedido pedido;
+        private final List<ItemPedido> itens;
+        private final SortedMap<Integer, Integer> quantidades;
+        private final Collection<String> reservas;
+        private final long chegada = System.nanoTime();
+        private final CompletableFuture<Integer> resultado = new CompletableFuture<>();
+        private List<Integer> semEstoque;
+
+        private PedidoPendente(Pedido pedido, List<ItemPedido> itens, SortedMap<Integer, Integer> quantidades,
+                               Collection<String> reservas) {
+            this.pedido = pedido;
+            this.itens = itens;
+            this.quantidades = quantidades;
+            this.reservas = reservas;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package br.com.moicano.lojinha.service;
+
+import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.dao.ProdutoListener;
+import br.com.moicano.lojinha.model.Produto;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Livro de reservas de estoque em memória.
+ *
+ * Quando um item entra no carrinho, a quantidade fica reservada por um tempo
+ * (TTL): outros clientes só conseguem reservar o que sobra. No checkout a
+ * reserva é confirmada; se o cliente desistir ou o tempo acabar, ela é liberada.
+ *
+ * Cada produto tem um único AtomicLong com estoque (32 bits altos) e reservado
+ * (32 bits baixos), então "ainda cabe?" e "reserve" acontecem num só
+ * compareAndSet, sem locks. A palavra final continua sendo do banco: o
+ * checkout faz a baixa condicional (quantidade >= ?) de qualquer forma.
+ *
+ * O ID de uma reserva é um UUID aleatório: quem não a criou não tem como
+ * adivinhá-lo para liberá-la ou usá-la num checkout alheio.
+ */
+public class ReservaEstoque implements ProdutoListener {
+    private static final long TTL_MS = Long.getLong("lojinha.reserva.ttlMs", 15 * 60_000L);
+    private static final long INTERVALO_LIMPEZA_MS = 30_000;
+
+    private static volatile ReservaEstoque instance;
+
+    private final ProdutoDAO produtoDAO;
+    // produtoId -> (estoque << 32 | reservado)
+    private final Map<Integer, AtomicLong> saldos = new ConcurrentHashMap<>();
+    private final Map<String, Reserva> reservas = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService limpeza;
+
+    private ReservaEstoque(ProdutoDAO produtoDAO) {
+        this.produtoDAO = produtoDAO;
+        this.limpeza = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lojinha-reservas-limpeza");
+            t.setDaemon(true);
+            return t;
+        });
+        limpeza.scheduleWithFixedDelay(this::liberarExpiradas, INTERVALO_LIMPEZA_MS, INTERVALO_LIMPEZA_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Singleton: o livro é único e acompanha as escritas do catálogo (ex: reposição de estoque)
+    public static ReservaEstoque getInstance() {
+        if (instance == null) {
+            synchronized (ReservaEstoque.class) {
+                if (instance == null) {
+                    ReservaEstoque reservaEstoque = new ReservaEstoque(new ProdutoDAO());
+                    ProdutoDAO.adicionarListener(reservaEstoque);
+                    instance = reservaEstoque;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Reserva a quantidade de um produto.
+     * @return o ID da reserva (guarde para confirmar ou liberar depois).
+     * @throws IllegalStateException se não houver quantidade disponível.
+     */
+    public String reservar(int produtoId, int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade inválida: " + quantidade);
+        }
+        AtomicLong saldo = saldo(produtoId);
+        while (true) {
+            long atual = saldo.get();
+            int estoque = estoque(atual);
+            int reservado = reservado(atual);
+            if ((long) reservado + quantidade > estoque) {
+                throw new IllegalStateException("Desculpe, só temos " + Math.max(estoque - reservado, 0)
+                        + " disponível(is) em estoque.");
+            }
+            if (saldo.compareAndSet(atual, empacotar(estoque, reservado + quantidade))) {
+                break;
+            }
+        }
+
+        String id = UUID.randomUUID().toString();
+        reservas.put(id, new Reserva(produtoId, quantidade, System.currentTimeMillis() + TTL_MS));
+        return id;
+    }
+
+    // O cliente desistiu (ou esvaziou o carrinho): a quantidade volta a ficar disponível
+    public void liberar(String reservaId) {
+        Reserva reserva = reservas.remove(reservaId);
+        if (reserva != null) {
+            ajustar(reserva.produtoId, 0, -reserva.quantidade);
+        }
+    }
+
+    public void liberar(Collection<String> reservaIds) {
+        for (String id : reservaIds) {
+            liberar(id);
+        }
+    }
+
+    /**
+     * Adia a expiração das reservas para daqui a validadeMs (nunca a antecipa).
+     * Para quem segura reservas por mais tempo que o TTL, como um carrinho em uso.
+     */
+    public void renovar(Collection<String> reservaIds, long validadeMs) {
+        long expiraEm = System.currentTimeMillis() + validadeMs;
+        for (String id : reservaIds) {
+            // Troca o registro inteiro: a limpeza só remove a reserva se ainda for o registro que ela leu
+            reservas.computeIfPresent(id, (chave, reserva) -> reserva.expiraEm >= expiraEm
+                    ? reserva
+                    : new Reserva(reserva.produtoId, reserva.quantidade, expiraEm));
+        }
+    }
+
+    // Quanto ainda pode ser reservado do produto
+    public int disponivel(int produtoId) {
+        long atual = saldo(produtoId).get();
+        return Math.max(estoque(atual) - reservado(atual), 0);
+    }
+
+    /**
+     * Confere, antes do checkout, que as reservas informadas são dos produtos
+     * comprados e não seguram mais do que a quantidade de cada um.
+     * Reservas que não existem mais (expiradas ou já usadas) são ignoradas: a baixa
+     * no banco decide se ainda há estoque.
+     * @throws IllegalArgumentException se alguma reserva não corresponde aos itens.
+     */
+    void validar(Collection<String> reservaIds, Map<Integer, Integer> quantidades) {
+        Map<Integer, Integer> reservado = new HashMap<>();
+        for (String id : new HashSet<>(reservaIds)) {
+            Reserva reserva = reservas.get(id);
+            if (reserva == null) {
+                continue;
+            }
+            if (!quantidades.containsKey(reserva.produtoId)) {
+                throw new IllegalArgumentException("A reserva " + id + " é do produto " + reserva.produtoId
+                        + ", que não está no pedido.");
+            }
+            reservado.merge(reserva.produtoId, reserva.quantidade, Integer::sum);
+        }
+        reservado.forEach((produtoId, quantidade) -> {
+            if (quantidade > quantidades.get(produtoId)) {
+                throw new IllegalArgumentException("As reservas do produto " + produtoId + " somam " + quantidade
+                        + " unidade(s), mais do que as " + quantidades.get(produtoId) + " do pedido.");
+            }
+        });
+    }
+
+    /**
+     * Chamado depois que o checkout gravou a baixa no banco: encerra as reservas
+     * do carrinho e desconta do estoque em memória o que foi vendido.
+     * Vale também para vendas sem reserva, para o livro não ficar com estoque a mais.
+     */
+    void confirmar(Collection<String> reservaIds, Map<Integer, Integer> quantidadesVendidas) {
+        for (String id : reservaIds) {
+            Reserva reserva = reservas.remove(id);
+            if (reserva != null) {
+                ajustar(reserva.produtoId, 0, -reserva.quantidade);
+            }
+        }
+        quantidadesVendidas.forEach((produtoId, quantidade) -> ajustar(produtoId, -quantidade, 0));
+    }
+
+    // O banco recusou a baixa: o estoque em memória desses produtos estava velho, relê do banco
+    // (sem o cache de produtos, que poderia devolver o mesmo valor velho)
+    void sincronizar(Collection<Integer> produtoIds) {
+        for (Integer produtoId : produtoIds) {
+            Integer estoque = produtoDAO.buscarEstoque(produtoId);
+            if (estoque == null) {
+                saldos.remove(produtoId);
+            } else {
+                definirEstoque(produtoId, estoque);
+            }
+        }
+    }
+
+    @Override
+    public void produtoSalvo(Produto produto) {
+        definirEstoque(produto.getId(), produto.getQuantidade());
+    }
+
+    @Override
+    public void produtoRemovido(int produtoId) {
+        saldos.remove(produtoId);
+    }
+
+    private void liberarExpiradas() {
+        long agora = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Reserva>> it = reservas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Reserva> entry = it.next();
+            Reserva reserva = entry.getValue();
+            // remove(chave, valor): se o checkout confirmou ao mesmo tempo, só um dos dois libera
+            if (reserva.expiraEm < agora && reservas.remove(entry.getKey(), reserva)) {
+                ajustar(reserva.produtoId, 0, -reserva.quantidade);
+            }
+        }
+    }
+
+    // Saldo do produto, carregado do banco (não do cache) na primeira vez que alguém o reserva
+    private AtomicLong saldo(int produtoId) {
+        AtomicLong saldo = saldos.get(produtoId);
+        if (saldo != null) {
+            return saldo;
+        }
+        Integer estoque = produtoDAO.buscarEstoque(produtoId);
+        if (estoque == null) {
+            throw new IllegalArgumentException("Produto não encontrado: " + produtoId);
+        }
+        AtomicLong novo = new AtomicLong(empacotar(estoque, 0));
+        AtomicLong anterior = saldos.putIfAbsent(produtoId, novo);
+        return anterior != null ? anterior : novo;
+    }
+
+    // Só mexe em produtos que já estão no livro; nenhum dos dois lados fica negativo
+    private void ajustar(int produtoId, int deltaEstoque, int deltaReservado) {
+        AtomicLong saldo = saldos.get(produtoId);
+        if (saldo == null) {
+            return;
+        }
+        saldo.getAndUpdate(atual -> empacotar(
+                Math.max(estoque(atual) + deltaEstoque, 0),
+                Math.max(reservado(atual) + deltaReservado, 0)));
+    }
+
+    private void definirEstoque(int produtoId, int estoque) {
+        AtomicLong saldo = saldos.get(produtoId);
+        if (saldo != null) {
+            saldo.getAndUpdate(atual -> empacotar(Math.max(estoque, 0), reservado(atual)));
+        }
+    }
+
+    private static long empacotar(int estoque, int reservado) {
+        return ((long) estoque << 32) | (reservado & 0xFFFF_FFFFL);
+    }
+
+    private static int estoque(long saldo) {
+        return (int) (saldo >>> 32);
+    }
+
+    private static int reservado(long saldo) {
+        return (int) saldo;
+    }
+
+    private record Reserva(int produtoId, int quantidade, long expiraEm) {}
+}
@@ -0,0 +1,17 @@
+package br.com.moicano.lojinha.service;
+
+/**
+ * A loja não pode atender agora (fila de pedidos cheia, limite de carrinhos,
+ * encerramento), mas a mesma operação pode dar certo daqui a pouco.
+ *
+ * Não é um conflito com o estado dos dados: na API vira 503, não 409.
+ * Estende IllegalStateException para quem já trata esse tipo continuar
+ * mostrando a mensagem ao usuário.
+ */
+public class ServicoIndisponivelException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public ServicoIndisponivelException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -4,17 +4,19 @@
 package br.com.moicano.lojinha.view;
 
 // Importa todos os "trabalhadores" (DAOs) e "moldes" (Models) necessários
+import br.com.moicano.lojinha.busca.IndiceBuscaProdutos;
+import br.com.moicano.lojinha.busca.ResultadoBusca;
 import br.com.moicano.lojinha.dao.FavoritoDAO; // PONTO ESSENCIAL: Import do novo DAO
-import br.com.moicano.lojinha.dao.ItemPedidoDAO;
-import br.com.moicano.lojinha.dao.PedidoDAO;
+import br.com.moicano.lojinha.dao.Pagina;
 import br.com.moicano.lojinha.dao.ProdutoDAO;
+import br.com.moicano.lojinha.model.Dinheiro;
 import br.com.moicano.lojinha.model.ItemPedido;
-import br.com.moicano.lojinha.model.Pedido;
 import br.com.moicano.lojinha.model.Produto;
+import br.com.moicano.lojinha.service.CarrinhoStore;
+import br.com.moicano.lojinha.service.CheckoutService;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 public class ClienteView {
@@ -22,22 +24,18 @@ public class ClienteView {
 
     // A tela do Cliente precisa de conhecer TODOS os "trabalhadores"
     private final ProdutoDAO produtoDAO;
-    private final PedidoDAO pedidoDAO;
-    private final ItemPedidoDAO itemPedidoDAO;
     private final FavoritoDAO favoritoDAO; // PONTO ESSENCIAL: Novo trabalhador de favoritos
+    private final CarrinhoStore carrinhoStore; // Guarda o carrinho, reserva o estoque e faz o checkout
 
-    // O "Carrinho" é uma lista temporária que vive apenas na memória desta tela
-    private final List<ItemPedido> carrinho;
+    // Sessão do carrinho desta tela no CarrinhoStore (aberta na primeira vez que algo é adicionado)
+    private String sessaoCarrinho;
 
     public ClienteView() {
         this.scanner = new Scanner(System.in);
         // Inicializa todos os DAOs (Trabalhadores)
         this.produtoDAO = new ProdutoDAO();
-        this.pedidoDAO = new PedidoDAO();
-        this.itemPedidoDAO = new ItemPedidoDAO();
         this.favoritoDAO = new FavoritoDAO(); // Inicializa o FavoritoDAO
-
-        this.carrinho = new ArrayList<>(); // Cria o carrinho vazio
+        this.carrinhoStore = CarrinhoStore.getInstance();
     }
 
     // Loop principal do menu do Cliente
@@ -51,6 +49,7 @@ public class ClienteView {
             System.out.println("2 - Ver Carrinho");
             System.out.println("3 - Finalizar Compra");
             System.out.println("4 - Meus Favoritos ⭐"); // PONTO ESSENCIAL: Nova opção no menu
+            System.out.println("5 - Buscar Produto por Nome");
             System.out.println("0 - Voltar ao Menu Principal");
             System.out.println("=".repeat(50));
             System.out.print("Escolha uma opção: ");
@@ -62,6 +61,7 @@ public class ClienteView {
                 case 2 -> verCarrinho();
                 case 3 -> finalizarCompra();
                 case 4 -> gerenciarFavoritos(); // Chama o sub-menu de favoritos
+                case 5 -> buscarProduto();
                 case 0 -> System.out.println("Voltando...");
                 default -> System.out.println("ERRO: Opção inválida!");
             }
@@ -124,19 +124,62 @@ public class ClienteView {
 
     // Lógica de Compra (Carrinho)
     private void adicionarAoCarrinho() {
-        System.out.println("\n--- NOSSOS PRODUTOS ---");
-        List<Produto> produtos = produtoDAO.buscarTodos();
-        if (produtos.isEmpty()) {
-            System.out.println("Desculpe, estamos sem estoque no momento.");
+        // O catálogo é mostrado página por página: memória e tempo por tela não
+        // dependem do tamanho do catálogo
+        String cursor = null;
+        int idProduto;
+        while (true) {
+            Pagina<Produto> pagina = produtoDAO.buscarPagina(cursor, Pagina.TAMANHO_PADRAO);
+            if (pagina.isVazia() && cursor == null) {
+                System.out.println("Desculpe, estamos sem estoque no momento.");
+                return;
+            }
+
+            System.out.println("\n--- NOSSOS PRODUTOS ---");
+            pagina.getItens().forEach(System.out::println);
+            System.out.println("-------------------------");
+
+            if (pagina.temProxima()) {
+                System.out.print("Digite o ID do produto que deseja adicionar (Enter para a próxima página, 0 para cancelar): ");
+            } else {
+                System.out.print("Digite o ID do produto que deseja adicionar (0 para cancelar): ");
+            }
+            String entrada = scanner.nextLine().trim();
+            if (entrada.isEmpty() && pagina.temProxima()) {
+                cursor = pagina.getProximoCursor();
+                continue;
+            }
+            idProduto = converterInteiro(entrada);
+            break;
+        }
+        if (idProduto == 0) return;
+
+        adicionarProdutoAoCarrinho(idProduto);
+    }
+
+    // Busca por nome no índice em memória (não toca no banco) e oferece adicionar ao carrinho
+    private void buscarProduto() {
+        System.out.print("\nDigite o nome (ou parte do nome) do produto: ");
+        String consulta = scanner.nextLine();
+
+        List<ResultadoBusca> resultados = IndiceBuscaProdutos.getInstance().buscar(consulta, 10);
+        if (resultados.isEmpty()) {
+            System.out.println("Nenhum produto encontrado para \"" + consulta + "\".");
             return;
         }
-        produtos.forEach(System.out::println);
+
+        System.out.println("\n--- RESULTADOS DA BUSCA ---");
+        resultados.forEach(System.out::println);
         System.out.println("-------------------------");
 
-        System.out.print("Digite o ID do produto que deseja adicionar (0 para cancelar): ");
+        System.out.print("Digite o ID do produto que deseja adicionar (0 para voltar): ");
         int idProduto = lerInteiro();
-        if (idProduto == 0) return;
+        if (idProduto <= 0) return;
 
+        adicionarProdutoAoCarrinho(idProduto);
+    }
+
+    private void adicionarProdutoAoCarrinho(int idProduto) {
         Produto produtoEscolhido = produtoDAO.buscarPorId(idProduto);
         if (produtoEscolhido == null) {
             System.out.println("ERRO: Produto não encontrado!");
@@ -150,39 +193,64 @@ public class ClienteView {
             return;
         }
 
-        // Verifica o estoque disponível
-        if (quantidade > produtoEscolhido.getQuantidade()) {
-            System.out.println("ERRO: Desculpe, só temos " + produtoEscolhido.getQuantidade() + " em estoque.");
+        // Reserva o estoque: o que está no carrinho de outro cliente não conta como disponível.
+        // O mesmo produto adicionado de novo soma na linha que já existe.
+        ItemPedido linha;
+        try {
+            linha = adicionarNaSessao(idProduto, quantidade);
+        } catch (IllegalStateException e) {
+            System.out.println("ERRO: " + e.getMessage());
             return;
         }
 
-        // Cria um item temporário e adiciona ao carrinho (na memória)
-        ItemPedido item = new ItemPedido(null, idProduto, quantidade, produtoEscolhido.getPreco());
-        item.setProdutoNome(produtoEscolhido.getNome());
-        carrinho.add(item);
+        System.out.println("SUCESSO: " + quantidade + "x " + produtoEscolhido.getNome() + " adicionado(s) ao carrinho! (total no carrinho: " + linha.getQuantidade() + ")");
+    }
 
-        System.out.println("SUCESSO: " + quantidade + "x " + produtoEscolhido.getNome() + " adicionado(s) ao carrinho!");
+    // Se a sessão expirou (tela parada por muito tempo), abre outra e tenta de novo
+    private ItemPedido adicionarNaSessao(int idProduto, int quantidade) {
+        if (sessaoCarrinho != null) {
+            try {
+                return carrinhoStore.adicionar(sessaoCarrinho, idProduto, quantidade);
+            } catch (NoSuchElementException e) {
+                System.out.println("AVISO: Seu carrinho expirou por inatividade; um novo foi aberto.");
+            }
+        }
+        sessaoCarrinho = carrinhoStore.criar();
+        return carrinhoStore.adicionar(sessaoCarrinho, idProduto, quantidade);
+    }
+
+    private List<ItemPedido> itensDoCarrinho() {
+        if (sessaoCarrinho == null) {
+            return List.of();
+        }
+        try {
+            return carrinhoStore.itens(sessaoCarrinho);
+        } catch (NoSuchElementException e) {
+            sessaoCarrinho = null;
+            return List.of();
+        }
     }
 
     private void verCarrinho() {
+        List<ItemPedido> carrinho = itensDoCarrinho();
         if (carrinho.isEmpty()) {
             System.out.println("\nO seu carrinho está vazio.");
             return;
         }
 
         System.out.println("\n--- MEU CARRINHO ---");
-        double total = 0;
+        long totalCentavos = 0;
         for (ItemPedido item : carrinho) {
             System.out.println(item.toString());
-            total += (item.getPrecoUnitario() * item.getQuantidade());
+            totalCentavos += item.getSubtotalCentavos();
         }
         System.out.println("-------------------------");
-        System.out.printf("VALOR TOTAL: R$ %.2f\n", total);
+        System.out.println("VALOR TOTAL: R$ " + Dinheiro.formatar(totalCentavos));
     }
 
     // PONTO MAIS IMPORTANTE: O Checkout (Finalizar Compra)
     private void finalizarCompra() {
-        if (carrinho.isEmpty()) {
+        if (itensDoCarrinho().isEmpty()) {
             System.out.println("ERRO: Seu carrinho está vazio. Adicione produtos primeiro.");
             return;
         }
@@ -192,39 +260,11 @@ public class ClienteView {
         System.out.print("\nDigite seu nome para o pedido: ");
         String nomeCliente = scanner.nextLine();
 
-        double valorTotal = 0;
-        for (ItemPedido item : carrinho) {
-            valorTotal += (item.getPrecoUnitario() * item.getQuantidade());
-        }
-
         try {
-            // --- INÍCIO DA TRANSAÇÃO ---
-
-            // 1. Define o status inicial para o Entregador ver depois
-            String statusInicial = "AGUARDANDO";
-
-            // 2. Cria o Recibo (Pedido) e salva no banco
-            Pedido novoPedido = new Pedido(LocalDateTime.now(), valorTotal, nomeCliente, statusInicial);
-            Integer pedidoId = pedidoDAO.criar(novoPedido); // Retorna o ID gerado (ex: 123)
-
-            if (pedidoId == null) {
-                throw new RuntimeException("Não foi possível criar o pedido.");
-            }
-
-            // 3. Loop para salvar cada item do carrinho
-            for (ItemPedido item : carrinho) {
-                // Liga o item ao ID do pedido (123)
-                item.setPedidoId(pedidoId);
-                itemPedidoDAO.criar(item);
-
-                // PONTO CRÍTICO: Atualiza o estoque do produto
-                Produto produtoComprado = produtoDAO.buscarPorId(item.getProdutoId());
-                int novoEstoque = produtoComprado.getQuantidade() - item.getQuantidade();
-                produtoComprado.setQuantidade(novoEstoque);
-                produtoDAO.atualizar(produtoComprado); // Salva a nova quantidade no banco
-            }
-
-            // --- FIM DA TRANSAÇÃO ---
+            // PONTO CRÍTICO: pedido, itens e baixa de estoque vão juntos numa única transação.
+            // Se faltar estoque de algum produto, nada é gravado.
+            Integer pedidoId = carrinhoStore.finalizar(sessaoCarrinho, nomeCliente);
+            String statusInicial = CheckoutService.STATUS_INICIAL.getDescricao();
 
             System.out.println("\n" + "=".repeat(50));
             System.out.println("COMPRA FINALIZADA COM SUCESSO!");
@@ -232,7 +272,7 @@ public class ClienteView {
             System.out.println("Seu pedido (Nº " + pedidoId + ") foi registrado com o status: " + statusInicial);
             System.out.println("=".repeat(50));
 
-            carrinho.clear(); // Limpa o carrinho para a próxima compra
+            sessaoCarrinho = null; // A sessão acabou com a compra; a próxima começa vazia
 
         } catch (Exception e) {
             System.out.println("ERRO CRÍTICO AO FINALIZAR COMPRA: " + e.getMessage());
@@ -240,8 +280,12 @@ public class ClienteView {
     }
 
     private int lerInteiro() {
+        return converterInteiro(scanner.nextLine());
+    }
+
+    private int converterInteiro(String texto) {
         try {
-            return Integer.parseInt(scanner.nextLine());
+            return Integer.parseInt(texto);
         } catch (NumberFormatException e) {
             return -1;
         }
@@ -2,6 +2,8 @@ package br.com.moicano.lojinha.view;
 
 import br.com.moicano.lojinha.dao.PedidoDAO;
 import br.com.moicano.lojinha.model.Pedido;
+import br.com.moicano.lojinha.model.StatusPedido;
+import br.com.moicano.lojinha.service.FilaDespacho;
 
 import java.util.List;
 import java.util.Scanner;
@@ -10,10 +12,12 @@ public class EntregadorView {
 
     private final Scanner scanner;
     private final PedidoDAO pedidoDAO; // O Entregador só precisa mexer com Pedidos
+    private final FilaDespacho filaDespacho; // Pedidos ativos em memória (a tela não consulta o banco)
 
     public EntregadorView() {
         this.scanner = new Scanner(System.in);
         this.pedidoDAO = new PedidoDAO();
+        this.filaDespacho = FilaDespacho.getInstance();
     }
 
     // Este é o loop principal do Painel do Entregador
@@ -25,6 +29,7 @@ public class EntregadorView {
             System.out.println("=".repeat(50));
             System.out.println("1 - Ver Pedidos Ativos (Aguardando / Em Rota)");
             System.out.println("2 - Atualizar Status de um Pedido");
+            System.out.println("3 - Pegar o Próximo Pedido da Fila");
             System.out.println("0 - Voltar ao Menu Principal");
             System.out.println("=".repeat(50));
             System.out.print("Escolha uma opção: ");
@@ -34,6 +39,7 @@ public class EntregadorView {
             switch (opcao) {
                 case 1 -> listarPedidosAtivos();
                 case 2 -> atualizarStatusPedido();
+                case 3 -> pegarProximoPedido();
                 case 0 -> System.out.println("Voltando...");
                 default -> System.out.println("ERRO: Opção inválida!");
             }
@@ -41,8 +47,8 @@ public class EntregadorView {
     }
 
     private void listarPedidosAtivos() {
-        // Usa o método novo que criamos no PedidoDAO
-        List<Pedido> pedidos = pedidoDAO.buscarPedidosAtivos();
+        // Vem da fila de despacho, na ordem em que os pedidos devem sair
+        List<Pedido> pedidos = filaDespacho.ativos();
 
         if (pedidos.isEmpty()) {
             System.out.println("\nNenhum pedido ativo no momento.");
@@ -54,6 +60,21 @@ public class EntregadorView {
         pedidos.forEach(System.out::println);
     }
 
+    // O pedido que espera há mais tempo vai para este entregador (e fica EM ROTA)
+    private void pegarProximoPedido() {
+        try {
+            Pedido pedido = filaDespacho.pegarProximo();
+            if (pedido == null) {
+                System.out.println("\nNenhum pedido aguardando entrega.");
+                return;
+            }
+            System.out.println("\nSUCESSO: Pedido ID " + pedido.getId() + " é seu! Status: " + pedido.getStatus());
+            System.out.println(pedido);
+        } catch (Exception e) {
+            System.out.println("ERRO: Não foi possível pegar o pedido: " + e.getMessage());
+        }
+    }
+
     private void atualizarStatusPedido() {
         System.out.print("\nDigite o ID do pedido que deseja atualizar: ");
         int pedidoId = lerInteiro();
@@ -70,11 +91,11 @@ public class EntregadorView {
         System.out.print("Escolha o novo status: ");
 
         int opcao = lerInteiro();
-        String novoStatus = null;
+        StatusPedido novoStatus = null;
 
         switch (opcao) {
-            case 1 -> novoStatus = "EM ROTA";
-            case 2 -> novoStatus = "ENTREGUE";
+            case 1 -> novoStatus = StatusPedido.EM_ROTA;
+            case 2 -> novoStatus = StatusPedido.ENTREGUE;
             case 0 -> {
                 System.out.println("Atualização cancelada.");
                 return;
@@ -85,9 +106,9 @@ public class EntregadorView {
             }
         }
 
-        // Usa o método novo que criamos no PedidoDAO
+        // O banco só aceita se o status atual leva ao novo (ex: um pedido ENTREGUE não volta a EM ROTA)
         try {
-            pedidoDAO.atualizarStatus(pedidoId, novoStatus);
+            pedidoDAO.transicionar(pedidoId, novoStatus);
             System.out.println("\nSUCESSO: Pedido ID " + pedidoId + " foi atualizado para " + novoStatus + ".");
         } catch (Exception e) {
             System.out.println("ERRO: Não foi possível atualizar o pedido: " + e.getMessage());
@@ -1,6 +1,7 @@
 package br.com.moicano.lojinha.view;
 
 import br.com.moicano.lojinha.model.Categoria;
+import br.com.moicano.lojinha.model.Dinheiro;
 import br.com.moicano.lojinha.model.Produto;
 
 import java.util.List;
@@ -42,7 +43,7 @@ public class ProdutoView {
         System.out.print("Descrição: ");
         String descricao = scanner.nextLine();
         System.out.print("Preço: ");
-        double preco = lerDouble();
+        long precoCentavos = lerCentavos();
         System.out.print("Quantidade em estoque: ");
         int quantidade = lerInteiro();
 
@@ -61,7 +62,7 @@ public class ProdutoView {
         // 4. PONTO ESSENCIAL (O que mudou):
         // Retorna um "molde" de Produto preenchido com a "fábrica" (construtor)
         // nova de 7 argumentos que nós criámos no Produto.java.
-        return new Produto(nome, descricao, preco, quantidade, categoriaId, dosagem, requerReceita);
+        return new Produto(nome, descricao, precoCentavos, quantidade, categoriaId, dosagem, requerReceita);
     }
 
     // PONTO ESSENCIAL 2: "ATUALIZAR" (Update)
@@ -82,9 +83,9 @@ public class ProdutoView {
         String descricao = scanner.nextLine();
         if (!descricao.isEmpty()) produtoAtual.setDescricao(descricao);
 
-        System.out.print("Preço [" + produtoAtual.getPreco() + "]: ");
+        System.out.print("Preço [" + Dinheiro.formatar(produtoAtual.getPrecoCentavos()) + "]: ");
         String precoStr = scanner.nextLine();
-        if (!precoStr.isEmpty()) produtoAtual.setPreco(Double.parseDouble(precoStr));
+        if (!precoStr.isEmpty()) produtoAtual.setPrecoCentavos(Dinheiro.parse(precoStr));
 
         System.out.print("Quantidade [" + produtoAtual.getQuantidade() + "]: ");
         String quantidadeStr = scanner.nextLine();
@@ -163,6 +164,12 @@ public class ProdutoView {
         }
     }
 
+    // Usada na listagem paginada: Enter mostra a próxima página, qualquer outra coisa encerra
+    public boolean desejaProximaPagina() {
+        System.out.print("\nEnter para a próxima página (ou digite 0 para voltar): ");
+        return scanner.nextLine().trim().isEmpty();
+    }
+
     // "LER" (Read) - Buscar por ID
     public void exibirProduto(Produto produto) {
         if (produto != null) {
@@ -201,11 +208,12 @@ public class ProdutoView {
         }
     }
 
-    private double lerDouble() {
+    // Lê um valor em reais ("10.50" ou "10,50") e devolve em centavos
+    private long lerCentavos() {
         try {
-            return Double.parseDouble(scanner.nextLine());
+            return Dinheiro.parse(scanner.nextLine());
         } catch (NumberFormatException e) {
-            return 0.0;
+            return 0;
         }
     }
 }
\ No newline at end of file
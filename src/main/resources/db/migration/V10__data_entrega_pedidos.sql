@@ -0,0 +1,16 @@
+-- Quando o pedido foi entregue (PedidoDAO.transicionar para ENTREGUE). É por
+-- ela que o ArquivadorPedidos conta a idade de um pedido entregue: um pedido
+-- feito há um mês e entregue agora fica nas tabelas quentes até completar a
+-- idade de arquivamento depois da entrega.
+-- Para os já entregues antes desta migração a hora da entrega não foi guardada;
+-- a data do pedido é a melhor aproximação (e mantém o arquivamento como era).
+
+ALTER TABLE pedidos ADD COLUMN IF NOT EXISTS entregue_em TIMESTAMP;
+ALTER TABLE pedidos_arquivo ADD COLUMN IF NOT EXISTS entregue_em TIMESTAMP;
+
+UPDATE pedidos SET entregue_em = data WHERE status = 'E' AND entregue_em IS NULL;
+UPDATE pedidos_arquivo SET entregue_em = data WHERE entregue_em IS NULL;
+
+-- Seleção dos lotes do arquivamento (entregue_em < ? ORDER BY entregue_em);
+-- os pedidos ativos têm entregue_em nulo
+CREATE INDEX IF NOT EXISTS idx_pedidos_entregue_em ON pedidos(entregue_em);
@@ -0,0 +1,43 @@
+-- Schema inicial da loja (equivalente ao antigo DatabaseConnection.initDatabase).
+-- Usa IF NOT EXISTS para adotar bancos criados antes das migrações sem perder dados.
+
+CREATE TABLE IF NOT EXISTS categorias (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    nome VARCHAR(100) NOT NULL,
+    descricao VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS produtos (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    nome VARCHAR(100) NOT NULL,
+    descricao VARCHAR(255),
+    preco DECIMAL(10, 2) NOT NULL,
+    quantidade INT NOT NULL,
+    categoria_id INT,
+    dosagem VARCHAR(100),
+    requer_receita BOOLEAN DEFAULT FALSE,
+    FOREIGN KEY (categoria_id) REFERENCES categorias(id)
+);
+
+CREATE TABLE IF NOT EXISTS pedidos (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    data TIMESTAMP,
+    valor_total DECIMAL(10, 2),
+    cliente_nome VARCHAR(255),
+    status VARCHAR(100)
+);
+
+CREATE TABLE IF NOT EXISTS itens_pedido (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    pedido_id INT,
+    produto_id INT,
+    quantidade INT,
+    preco_unitario DECIMAL(10, 2),
+    FOREIGN KEY (pedido_id) REFERENCES pedidos(id),
+    FOREIGN KEY (produto_id) REFERENCES produtos(id)
+);
+
+CREATE TABLE IF NOT EXISTS favoritos (
+    produto_id INT PRIMARY KEY,
+    FOREIGN KEY (produto_id) REFERENCES produtos(id)
+);
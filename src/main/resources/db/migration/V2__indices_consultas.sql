@@ -0,0 +1,11 @@
+-- Índices secundários para as consultas mais frequentes dos DAOs.
+-- (itens_pedido.pedido_id já é coberto pelo índice que o H2 cria para a FK.)
+
+-- PedidoDAO.buscarPedidosAtivos: status IN (...) ORDER BY data
+CREATE INDEX IF NOT EXISTS idx_pedidos_status_data ON pedidos(status, data);
+
+-- PedidoDAO.buscarTodos: ORDER BY data DESC (lido direto do índice, sem ordenar)
+CREATE INDEX IF NOT EXISTS idx_pedidos_data ON pedidos(data DESC);
+
+-- ProdutoDAO.buscarPorCategoria: WHERE categoria_id = ? ORDER BY nome
+CREATE INDEX IF NOT EXISTS idx_produtos_categoria_nome ON produtos(categoria_id, nome);
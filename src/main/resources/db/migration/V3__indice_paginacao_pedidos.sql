@@ -0,0 +1,5 @@
+-- Paginação por chave (keyset) de PedidoDAO.buscarPagina: ORDER BY data DESC, id DESC
+-- com "WHERE (data, id) < (?, ?)". Com o id no índice a busca vai direto ao ponto
+-- da página e lê só as linhas dela. Substitui o índice só de data criado na V2.
+DROP INDEX IF EXISTS idx_pedidos_data;
+CREATE INDEX IF NOT EXISTS idx_pedidos_data_id ON pedidos(data DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Valores em dinheiro passam de DECIMAL(10,2) para BIGINT em centavos,
+-- o mesmo formato usado nos modelos Java (ver model.Dinheiro).
+
+ALTER TABLE produtos ADD COLUMN preco_centavos BIGINT;
+UPDATE produtos SET preco_centavos = CAST(ROUND(preco * 100) AS BIGINT);
+ALTER TABLE produtos ALTER COLUMN preco_centavos SET NOT NULL;
+ALTER TABLE produtos DROP COLUMN preco;
+
+ALTER TABLE pedidos ADD COLUMN valor_total_centavos BIGINT;
+UPDATE pedidos SET valor_total_centavos = CAST(ROUND(valor_total * 100) AS BIGINT);
+ALTER TABLE pedidos DROP COLUMN valor_total;
+
+ALTER TABLE itens_pedido ADD COLUMN preco_unitario_centavos BIGINT;
+UPDATE itens_pedido SET preco_unitario_centavos = CAST(ROUND(preco_unitario * 100) AS BIGINT);
+ALTER TABLE itens_pedido DROP COLUMN preco_unitario;
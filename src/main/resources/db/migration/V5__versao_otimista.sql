@@ -0,0 +1,5 @@
+-- Coluna de versão para controle de concorrência otimista: cada UPDATE confere
+-- a versão que leu (WHERE versao = ?) e a incrementa.
+
+ALTER TABLE produtos ADD COLUMN versao INT DEFAULT 0 NOT NULL;
+ALTER TABLE pedidos ADD COLUMN versao INT DEFAULT 0 NOT NULL;
@@ -0,0 +1,6 @@
+-- Chave de idempotência do checkout: o cliente manda a mesma chave quando repete
+-- o pedido (timeout, clique duplo) e recebe o pedido original em vez de um novo.
+-- O índice único é a garantia final; pedidos sem chave (NULL) não conflitam entre si.
+
+ALTER TABLE pedidos ADD COLUMN chave_idempotencia VARCHAR(64);
+CREATE UNIQUE INDEX idx_pedidos_chave_idempotencia ON pedidos(chave_idempotencia);
@@ -0,0 +1,21 @@
+-- Status do pedido passa de texto livre (VARCHAR(100)) a um código de uma letra
+-- (StatusPedido): A = AGUARDANDO, R = EM ROTA, E = ENTREGUE.
+-- Qualquer valor fora desses volta para AGUARDANDO, para reaparecer para os entregadores.
+
+ALTER TABLE pedidos ADD COLUMN status_codigo CHAR(1);
+
+UPDATE pedidos SET status_codigo = CASE status
+    WHEN 'AGUARDANDO' THEN 'A'
+    WHEN 'EM ROTA' THEN 'R'
+    WHEN 'ENTREGUE' THEN 'E'
+    ELSE 'A'
+END;
+
+ALTER TABLE pedidos ALTER COLUMN status_codigo SET NOT NULL;
+ALTER TABLE pedidos ADD CONSTRAINT ck_pedidos_status CHECK (status_codigo IN ('A', 'R', 'E'));
+
+-- O índice (status, data) da V2 é recriado sobre a coluna nova
+DROP INDEX IF EXISTS idx_pedidos_status_data;
+ALTER TABLE pedidos DROP COLUMN status;
+ALTER TABLE pedidos ALTER COLUMN status_codigo RENAME TO status;
+CREATE INDEX idx_pedidos_status_data ON pedidos(status, data);
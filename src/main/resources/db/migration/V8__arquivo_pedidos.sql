@@ -0,0 +1,29 @@
+-- Partição fria dos pedidos: os ENTREGUES mais antigos saem de pedidos/itens_pedido
+-- (ArquivadorPedidos) e são guardados aqui com as mesmas colunas e os mesmos IDs.
+-- As tabelas quentes ficam só com o que a operação do dia usa; o histórico
+-- (PedidoDAO.buscarPagina, streamTodos) lê as duas.
+
+CREATE TABLE IF NOT EXISTS pedidos_arquivo (
+    id INT PRIMARY KEY,
+    data TIMESTAMP,
+    valor_total_centavos BIGINT,
+    cliente_nome VARCHAR(255),
+    status CHAR(1) NOT NULL,
+    versao INT DEFAULT 0 NOT NULL,
+    chave_idempotencia VARCHAR(64),
+    arquivado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS itens_pedido_arquivo (
+    id INT PRIMARY KEY,
+    pedido_id INT NOT NULL,
+    produto_id INT,
+    quantidade INT,
+    preco_unitario_centavos BIGINT,
+    FOREIGN KEY (pedido_id) REFERENCES pedidos_arquivo(id),
+    FOREIGN KEY (produto_id) REFERENCES produtos(id)
+);
+
+-- Mesmos acessos das tabelas quentes: paginação do histórico (V3) e chave de idempotência (V6)
+CREATE INDEX IF NOT EXISTS idx_pedidos_arquivo_data_id ON pedidos_arquivo(data DESC, id DESC);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_pedidos_arquivo_chave ON pedidos_arquivo(chave_idempotencia);
@@ -0,0 +1,50 @@
+-- Agregados de vendas para os relatórios (RelatorioDAO): totais por dia, por
+-- produto e dia e por categoria e dia. São atualizados com MERGE na mesma
+-- transação do checkout (GravadorPedidos), então um relatório lê só as linhas
+-- do período pedido em vez de somar itens_pedido inteira.
+-- categoria_id = 0 agrupa os produtos sem categoria.
+
+CREATE TABLE IF NOT EXISTS vendas_dia (
+    dia DATE PRIMARY KEY,
+    pedidos BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    receita_centavos BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS vendas_produto_dia (
+    dia DATE NOT NULL,
+    produto_id INT NOT NULL,
+    unidades BIGINT NOT NULL,
+    receita_centavos BIGINT NOT NULL,
+    PRIMARY KEY (dia, produto_id)
+);
+
+CREATE TABLE IF NOT EXISTS vendas_categoria_dia (
+    dia DATE NOT NULL,
+    categoria_id INT NOT NULL,
+    unidades BIGINT NOT NULL,
+    receita_centavos BIGINT NOT NULL,
+    PRIMARY KEY (dia, categoria_id)
+);
+
+-- Carga inicial com o histórico que já existe (pedidos quentes e arquivados)
+INSERT INTO vendas_produto_dia (dia, produto_id, unidades, receita_centavos)
+SELECT CAST(p.data AS DATE), i.produto_id, SUM(i.quantidade), SUM(i.quantidade * i.preco_unitario_centavos)
+FROM (SELECT id, data FROM pedidos UNION ALL SELECT id, data FROM pedidos_arquivo) p
+JOIN (SELECT pedido_id, produto_id, quantidade, preco_unitario_centavos FROM itens_pedido
+      UNION ALL SELECT pedido_id, produto_id, quantidade, preco_unitario_centavos FROM itens_pedido_arquivo) i ON i.pedido_id = p.id
+WHERE p.data IS NOT NULL
+GROUP BY CAST(p.data AS DATE), i.produto_id;
+
+INSERT INTO vendas_categoria_dia (dia, categoria_id, unidades, receita_centavos)
+SELECT v.dia, COALESCE(pr.categoria_id, 0), SUM(v.unidades), SUM(v.receita_centavos)
+FROM vendas_produto_dia v JOIN produtos pr ON pr.id = v.produto_id
+GROUP BY v.dia, COALESCE(pr.categoria_id, 0);
+
+INSERT INTO vendas_dia (dia, pedidos, unidades, receita_centavos)
+SELECT p.dia, p.pedidos, COALESCE(v.unidades, 0), p.receita_centavos
+FROM (SELECT CAST(data AS DATE) AS dia, COUNT(*) AS pedidos, SUM(valor_total_centavos) AS receita_centavos
+      FROM (SELECT data, valor_total_centavos FROM pedidos UNION ALL SELECT data, valor_total_centavos FROM pedidos_arquivo) t
+      WHERE data IS NOT NULL
+      GROUP BY CAST(data AS DATE)) p
+LEFT JOIN (SELECT dia, SUM(unidades) AS unidades FROM vendas_produto_dia GROUP BY dia) v ON v.dia = p.dia;
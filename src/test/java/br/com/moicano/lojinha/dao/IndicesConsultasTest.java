@@ -0,0 +1,166 @@
+package br.com.moicano.lojinha.dao;
+
+import br.com.moicano.lojinha.database.DatabaseConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Confere, pelo EXPLAIN do H2, que as consultas mais frequentes dos DAOs são
+ * atendidas pelos índices das migrações (V2, V3, V7, V8) e não por varredura
+ * da tabela inteira.
+ *
+ * O SQL verificado é o que o DAO realmente executou (capturado em
+ * INFORMATION_SCHEMA.QUERY_STATISTICS), não uma cópia dele: se a consulta mudar
+ * de forma e perder o índice, o teste acusa.
+ */
+class IndicesConsultasTest {
+    private static final int PEDIDOS = 3_000;
+    private static final int PEDIDOS_ARQUIVADOS = 1_000;
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void prepararBanco() throws SQLException {
+        // Antes do primeiro uso de DatabaseConnection: o pool lê a URL uma vez só
+        System.setProperty("lojinha.db.url", "jdbc:h2:mem:indices-consultas;DB_CLOSE_DELAY=-1");
+        DatabaseConnection.initDatabase();
+        conn = DatabaseConnection.getConnection();
+        popular();
+    }
+
+    @AfterAll
+    static void encerrar() throws SQLException {
+        conn.close();
+        DatabaseConnection.shutdown();
+    }
+
+    @Test
+    void pedidosAtivosUsamIndiceDeStatusEData() throws SQLException {
+        List<String> executadas = capturar(() -> new PedidoDAO().buscarPedidosAtivos());
+
+        String plano = explicar(executadas.get(0), "A", "R");
+        assertUsaIndice(plano, "IDX_PEDIDOS_STATUS_DATA");
+    }
+
+    @Test
+    void paginasDoHistoricoUsamIndiceDeDataEId() throws SQLException {
+        PedidoDAO pedidoDAO = new PedidoDAO();
+        List<String> primeira = capturar(() -> pedidoDAO.buscarPagina(null, 20));
+        String plano = explicar(primeira.get(0), 21);
+        assertUsaIndice(plano, "IDX_PEDIDOS_DATA_ID");
+        assertUsaIndice(plano, "IDX_PEDIDOS_ARQUIVO_DATA_ID");
+
+        // Páginas seguintes: (data, id) < (?, ?) nas duas tabelas, mais os pedidos sem data
+        LocalDateTime data = LocalDateTime.of(2026, 1, 1, 12, 0);
+        String cursor = Pagina.codificarCursor(data.toString(), String.valueOf(PEDIDOS));
+        List<String> seguinte = capturar(() -> pedidoDAO.buscarPagina(cursor, 20));
+        Timestamp ts = Timestamp.valueOf(data);
+        plano = explicar(seguinte.get(0), ts, PEDIDOS, ts, PEDIDOS, 21);
+        assertUsaIndice(plano, "IDX_PEDIDOS_DATA_ID");
+        assertUsaIndice(plano, "IDX_PEDIDOS_ARQUIVO_DATA_ID");
+    }
+
+    @Test
+    void produtosDaCategoriaUsamIndiceDeCategoriaENome() throws SQLException {
+        List<String> executadas = capturar(() -> new ProdutoDAO().buscarPorCategoria(3));
+
+        String plano = explicar(executadas.get(0), 3);
+        assertUsaIndice(plano, "IDX_PRODUTOS_CATEGORIA_NOME");
+        assertTrue(plano.contains("/* index sorted */"), "Esperava a ordem por nome vinda do índice:\n" + plano);
+    }
+
+    @Test
+    void itensDoPedidoUsamIndiceDePedidoId() throws SQLException {
+        // Pedido arquivado: o DAO procura na tabela quente e depois no arquivo
+        List<String> executadas = capturar(() -> new ItemPedidoDAO().buscarPorPedidoId(PEDIDOS + 1));
+        assertEquals(2, executadas.size(), "Esperava a busca na tabela quente e no arquivo: " + executadas);
+
+        for (String sql : executadas) {
+            String plano = explicar(sql, PEDIDOS + 1);
+            // Índice da FK pedido_id (nome gerado pelo H2)
+            assertTrue(plano.contains("PEDIDO_ID = ?1 */"), "Esperava busca pelo índice de pedido_id:\n" + plano);
+            assertFalse(plano.contains("tableScan"), "Varredura da tabela inteira:\n" + plano);
+        }
+    }
+
+    private static void assertUsaIndice(String plano, String indice) {
+        assertTrue(plano.contains("/* PUBLIC." + indice), "Esperava o índice " + indice + ":\n" + plano);
+        assertFalse(plano.contains("tableScan"), "Varredura da tabela inteira:\n" + plano);
+    }
+
+    // Consultas que a ação executou (sem os comandos internos do driver)
+    private static List<String> capturar(Runnable acao) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Desligar e ligar de novo zera as estatísticas
+            stmt.execute("SET QUERY_STATISTICS FALSE");
+            stmt.execute("SET QUERY_STATISTICS TRUE");
+        }
+        acao.run();
+        List<String> executadas = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS");
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (sql.startsWith("SELECT") || sql.startsWith("(SELECT")) {
+                    executadas.add(sql);
+                }
+            }
+            stmt.execute("SET QUERY_STATISTICS FALSE");
+        }
+        assertFalse(executadas.isEmpty(), "Nenhuma consulta capturada");
+        return executadas;
+    }
+
+    private static String explicar(String sql, Object... parametros) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parametros.length; i++) {
+                stmt.setObject(i + 1, parametros[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                String plano = rs.getString(1);
+                assertNotNull(plano);
+                return plano;
+            }
+        }
+    }
+
+    // Volume parecido com o de uma loja em uso, para o otimizador escolher como em produção
+    private static void popular() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO categorias (nome, descricao) SELECT 'Categoria ' || X, 'Teste' FROM SYSTEM_RANGE(1, 10)");
+            stmt.execute("INSERT INTO produtos (nome, descricao, preco_centavos, quantidade, categoria_id, dosagem, requer_receita) "
+                    + "SELECT 'Produto ' || X, 'Teste', 100 + X, 50, 1 + MOD(X, 10), '500mg', FALSE FROM SYSTEM_RANGE(1, 500)");
+            // Quase todos entregues; poucos ativos (AGUARDANDO / EM ROTA)
+            stmt.execute("INSERT INTO pedidos (data, valor_total_centavos, cliente_nome, status) "
+                    + "SELECT DATEADD('MINUTE', X, TIMESTAMP '2025-06-01 00:00:00'), 1000, 'Cliente ' || X, "
+                    + "CASE WHEN MOD(X, 50) = 0 THEN 'A' WHEN MOD(X, 50) = 1 THEN 'R' ELSE 'E' END "
+                    + "FROM SYSTEM_RANGE(1, " + PEDIDOS + ")");
+            stmt.execute("INSERT INTO itens_pedido (pedido_id, produto_id, quantidade, preco_unitario_centavos) "
+                    + "SELECT 1 + MOD(X, " + PEDIDOS + "), 1 + MOD(X, 500), 1, 100 FROM SYSTEM_RANGE(1, " + 2 * PEDIDOS + ")");
+            stmt.execute("INSERT INTO pedidos_arquivo (id, data, valor_total_centavos, cliente_nome, status, versao) "
+                    + "SELECT " + PEDIDOS + " + X, DATEADD('MINUTE', X, TIMESTAMP '2025-01-01 00:00:00'), 1000, 'Cliente', 'E', 0 "
+                    + "FROM SYSTEM_RANGE(1, " + PEDIDOS_ARQUIVADOS + ")");
+            stmt.execute("INSERT INTO itens_pedido_arquivo (id, pedido_id, produto_id, quantidade, preco_unitario_centavos) "
+                    + "SELECT X, " + PEDIDOS + " + 1 + MOD(X, " + PEDIDOS_ARQUIVADOS + "), 1 + MOD(X, 500), 1, 100 "
+                    + "FROM SYSTEM_RANGE(1, " + 2 * PEDIDOS_ARQUIVADOS + ")");
+            stmt.execute("ANALYZE");
+        }
+    }
+}